@@ -0,0 +1,68 @@
+package com.shortapps.app.view;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Color;
+import android.os.Debug;
+import android.widget.FrameLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.shortapps.app.model.ShortcutItem;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebinding a warm holder, as a layout pass or notifyItemChanged does, must not allocate.
+ * App items are left out: their first bind waits on the asynchronous icon loader.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ShortcutAdapterBindTest {
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void rebindingWarmHolderAllocatesNothing() {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Context context = instrumentation.getTargetContext();
+
+        List<ShortcutItem> items = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ShortcutItem item = new ShortcutItem("item" + i, ShortcutItem.TYPE_TASKER, "Task " + i);
+            if (i % 2 == 0) {
+                item.setDisplayMode(ShortcutItem.MODE_COLOR_BLOCK);
+                item.setColorInfo(i % 4 == 0 ? Color.RED : Color.BLUE);
+            }
+            items.add(item);
+        }
+
+        int[] allocations = new int[1];
+        instrumentation.runOnMainSync(() -> {
+            ShortcutAdapter adapter = new ShortcutAdapter(context, items, true, 96);
+            FrameLayout parent = new FrameLayout(context);
+            List<ShortcutAdapter.Holder> holders = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                ShortcutAdapter.Holder holder = adapter.onCreateViewHolder(parent, 0);
+                adapter.onBindViewHolder(holder, i);
+                adapter.onBindViewHolder(holder, i);
+                holders.add(holder);
+            }
+
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+            for (int pass = 0; pass < 10; pass++) {
+                for (int i = 0; i < holders.size(); i++) adapter.onBindViewHolder(holders.get(i), i);
+            }
+            Debug.stopAllocCounting();
+            allocations[0] = Debug.getThreadAllocCount();
+        });
+
+        assertEquals(0, allocations[0]);
+    }
+}
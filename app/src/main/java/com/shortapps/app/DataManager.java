@@ -12,17 +12,19 @@ public class DataManager {
     private static final String PREF_NAME = "ShortappsData";
     private static final String KEY_WINDOWS = "windows";
     private static final String KEY_PILL_SIZE = "pill_size";
+    // Legacy model; one shared instance so its reflective adapters are built once
+    private static final Gson GSON = new Gson();
+    private static final Type LIST_TYPE = new TypeToken<ArrayList<DataModel.WindowConfig>>(){}.getType();
 
     public static List<DataModel.WindowConfig> loadWindows(Context context) {
         SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         String json = prefs.getString(KEY_WINDOWS, "[]");
-        Type listType = new TypeToken<ArrayList<DataModel.WindowConfig>>(){}.getType();
-        return new Gson().fromJson(json, listType);
+        return GSON.fromJson(json, LIST_TYPE);
     }
 
     public static void saveWindows(Context context, List<DataModel.WindowConfig> windows) {
         SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        String json = new Gson().toJson(windows);
+        String json = GSON.toJson(windows);
         prefs.edit().putString(KEY_WINDOWS, json).apply();
     }
     
@@ -2,12 +2,11 @@ package com.shortapps.app;
 
 import android.app.Activity;
 import android.content.Intent;
-import android.content.pm.ApplicationInfo;
-import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
@@ -26,6 +25,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -33,10 +33,17 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButtonToggleGroup;
 import com.google.android.material.switchmaterial.SwitchMaterial;
+import com.shortapps.app.model.AppEntry;
 import com.shortapps.app.model.ShortcutItem;
 import com.shortapps.app.model.WindowConfig;
-import com.shortapps.app.utils.ConfigManager;
+import com.shortapps.app.utils.AppCatalog;
+import com.shortapps.app.utils.AppEnumerator;
+import com.shortapps.app.utils.AppSearchIndex;
+import com.shortapps.app.utils.ConfigRepository;
+import com.shortapps.app.utils.IconCache;
+import com.shortapps.app.utils.StableIds;
 import com.shortapps.app.view.ColorWheelView;
+import com.shortapps.app.view.TriggerBackground;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -45,22 +52,25 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class EditorActivity extends AppCompatActivity {
     
     private static final int REQUEST_PICK_SHORTCUT = 1001;
     private static final int REQUEST_CREATE_SHORTCUT = 1002;
+    // App picker searches, shared by every picker dialog; one search at a time is plenty
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor();
 
-    private WindowConfig config;
-    private int configIndex;
-    private List<WindowConfig> allConfigs;
+    private WindowConfig config; // Working copy, handed back to the repository on save
     
     private EditText etName;
     private View viewTriggerColorPreview, previewTrigger;
-    private SwitchMaterial switchNotification, switchTrigger, switchShowLabels, switchCornerSnap;
-    private SeekBar sbColumns, sbTriggerWidth, sbTriggerHeight;
+    private final TriggerBackground previewBackground = new TriggerBackground();
+    private SwitchMaterial switchNotification, switchTrigger, switchShowLabels, switchDrawnGrid, switchCornerSnap;
+    private SeekBar sbColumns, sbItemSize, sbTriggerWidth, sbTriggerHeight;
     private SeekBar sbRadiusTL, sbRadiusTR, sbRadiusBL, sbRadiusBR;
-    private TextView tvColumns, tvTriggerWidth, tvTriggerHeight;
+    private TextView tvColumns, tvItemSize, tvTriggerWidth, tvTriggerHeight;
     private MaterialButtonToggleGroup toggleTriggerStyle;
     private View layoutTriggerSettings;
     
@@ -77,10 +87,9 @@ public class EditorActivity extends AppCompatActivity {
         androidx.appcompat.widget.Toolbar toolbar = findViewById(R.id.toolbar);
         toolbar.setNavigationOnClickListener(v -> finish());
         
-        allConfigs = ConfigManager.loadWindows(this);
-        configIndex = getIntent().getIntExtra("window_index", -1);
-        if (configIndex == -1) { finish(); return; }
-        config = allConfigs.get(configIndex);
+        String windowId = getIntent().getStringExtra("window_id");
+        config = windowId != null ? ConfigRepository.get(this).copyOf(windowId) : null;
+        if (config == null) { finish(); return; }
         
         bindViews();
         setupListeners();
@@ -98,11 +107,19 @@ public class EditorActivity extends AppCompatActivity {
         switchShowLabels = findViewById(R.id.switchShowLabels);
         switchShowLabels.setChecked(config.isShowLabels());
         
+        switchDrawnGrid = findViewById(R.id.switchDrawnGrid);
+        switchDrawnGrid.setChecked(config.isDrawnGrid());
+        
         tvColumns = findViewById(R.id.tvColumns);
         sbColumns = findViewById(R.id.sbColumns);
         sbColumns.setProgress(config.getColumns());
         tvColumns.setText("Columns: " + config.getColumns());
         
+        tvItemSize = findViewById(R.id.tvItemSize);
+        sbItemSize = findViewById(R.id.sbItemSize);
+        sbItemSize.setProgress(config.getItemSizeDp());
+        tvItemSize.setText("Icon Size: " + config.getItemSizeDp() + "dp");
+        
         // Trigger Settings
         switchTrigger = findViewById(R.id.switchTrigger);
         switchTrigger.setChecked(config.isTriggerEnabled());
@@ -164,42 +181,10 @@ public class EditorActivity extends AppCompatActivity {
         lp.height = h;
         previewTrigger.setLayoutParams(lp);
         
-        GradientDrawable shape = new GradientDrawable();
-        shape.setShape(GradientDrawable.RECTANGLE);
-        
-        // Set individual corner radii: TL, TR, BR, BL (each pair X/Y)
-        float[] radii = new float[] {
-            config.getRadiusTL() * d, config.getRadiusTL() * d,
-            config.getRadiusTR() * d, config.getRadiusTR() * d,
-            config.getRadiusBR() * d, config.getRadiusBR() * d,
-            config.getRadiusBL() * d, config.getRadiusBL() * d
-        };
-        shape.setCornerRadii(radii);
-        
-        int color = config.getTriggerColor();
-        int style = config.getTriggerStyle();
-        
-        switch (style) {
-            case 0: // Solid
-                shape.setColor(color);
-                break;
-            case 1: // Outline
-                shape.setColor(Color.TRANSPARENT);
-                shape.setStroke(4, color);
-                break;
-            case 2: // Glass
-                shape.setColor(Color.argb(80, Color.red(color), Color.green(color), Color.blue(color)));
-                shape.setStroke(2, Color.WHITE);
-                break;
-            case 3: // Inverted
-                shape.setColor(Color.WHITE);
-                shape.setStroke(4, color);
-                break;
-            default:
-                shape.setColor(color);
+        previewBackground.apply(config, d);
+        if (previewTrigger.getBackground() != previewBackground.getDrawable()) {
+            previewTrigger.setBackground(previewBackground.getDrawable());
         }
-        
-        previewTrigger.setBackground(shape);
     }
     
     private void setupListeners() {
@@ -208,8 +193,14 @@ public class EditorActivity extends AppCompatActivity {
              tvColumns.setText("Columns: " + val);
         }));
         
+        sbItemSize.setOnSeekBarChangeListener(new SimpleSeekBarListener(val -> {
+             config.setItemSizeDp(val);
+             tvItemSize.setText("Icon Size: " + val + "dp");
+        }));
+        
         switchNotification.setOnCheckedChangeListener((btn, checked) -> config.setEnabledInNotification(checked));
         switchShowLabels.setOnCheckedChangeListener((btn, checked) -> config.setShowLabels(checked));
+        switchDrawnGrid.setOnCheckedChangeListener((btn, checked) -> config.setDrawnGrid(checked));
         
         switchTrigger.setOnCheckedChangeListener((btn, checked) -> {
             config.setTriggerEnabled(checked);
@@ -345,35 +336,14 @@ public class EditorActivity extends AppCompatActivity {
         config.setName(etName.getText().toString());
         config.setEnabledInNotification(switchNotification.isChecked());
         
-        allConfigs.set(configIndex, config);
-        ConfigManager.saveWindows(this, allConfigs);
-        
-        Intent i = new Intent(this, OverlayService.class);
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
-            startForegroundService(i);
-        } else {
-            startService(i);
-        }
+        // The running service is subscribed to the repository and applies this directly
+        ConfigRepository.get(this).put(config);
         finish();
     }
     
     // --- Logic: Add/Edit Items ---
     
-    private static class AppInfoWrapper {
-        ApplicationInfo info;
-        String label;
-        
-        AppInfoWrapper(ApplicationInfo info, PackageManager pm) {
-            this.info = info;
-            this.label = pm.getApplicationLabel(info).toString();
-        }
-    }
-
     private void showAppPicker(@Nullable ShortcutItem editingItem) {
-        PackageManager pm = getPackageManager();
-        List<ApplicationInfo> apps = pm.getInstalledApplications(PackageManager.GET_META_DATA);
-        List<AppInfoWrapper> validApps = new ArrayList<>();
-        
         // Collect existing package names to prevent duplicates
         Set<String> existingPackages = new HashSet<>();
         for (ShortcutItem item : config.getItems()) {
@@ -382,22 +352,19 @@ public class EditorActivity extends AppCompatActivity {
             }
         }
         
-        for (ApplicationInfo app : apps) {
-            if (pm.getLaunchIntentForPackage(app.packageName) != null) {
-                validApps.add(new AppInfoWrapper(app, pm));
-            }
-        }
-        
-        Collections.sort(validApps, (a, b) -> a.label.compareToIgnoreCase(b.label));
-        
         View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_app_picker, null);
         RecyclerView rv = dialogView.findViewById(R.id.recyclerApps);
         EditText etSearch = dialogView.findViewById(R.id.etSearch);
         
         rv.setLayoutManager(new GridLayoutManager(this, 6));
         
-        AppPickerAdapter adapter = new AppPickerAdapter(validApps, editingItem != null, pm, existingPackages);
+        // Filled from the persisted catalog in one batch, or streamed in while it is first built
+        AppPickerAdapter adapter = new AppPickerAdapter(editingItem != null, existingPackages);
         rv.setAdapter(adapter);
+        AppEnumerator.Task enumeration = AppCatalog.get(this).query(new AppEnumerator.Sink() {
+            @Override public void onBatch(List<AppEntry> batch) { adapter.addBatch(batch); }
+            @Override public void onComplete() {}
+        });
         
         etSearch.addTextChangedListener(new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
@@ -413,15 +380,19 @@ public class EditorActivity extends AppCompatActivity {
             .setPositiveButton(editingItem == null ? "Add Selected" : "Save", null)
             .setNegativeButton("Cancel", null)
             .create();
+        dialog.setOnDismissListener(d -> {
+            enumeration.cancel();
+            adapter.release();
+        });
             
         dialog.setOnShowListener(d -> {
             dialog.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener(v -> {
-                List<AppInfoWrapper> selected = adapter.getSelected();
+                List<AppEntry> selected = adapter.getSelected();
                 
                 // Filter out already existing apps just in case, though UI should handle it
-                List<AppInfoWrapper> newApps = new ArrayList<>();
-                for (AppInfoWrapper app : selected) {
-                    if (!existingPackages.contains(app.info.packageName)) {
+                List<AppEntry> newApps = new ArrayList<>();
+                for (AppEntry app : selected) {
+                    if (!existingPackages.contains(app.getPackageName())) {
                          newApps.add(app);
                     }
                 }
@@ -441,10 +412,10 @@ public class EditorActivity extends AppCompatActivity {
                 
                 if (editingItem != null) {
                     // Single edit
-                    AppInfoWrapper app = newApps.get(0);
-                    editingItem.setLabel(app.label);
-                    editingItem.setPackageName(app.info.packageName);
-                    itemAdapter.notifyDataSetChanged();
+                    AppEntry app = newApps.get(0);
+                    editingItem.setLabel(app.getLabel());
+                    editingItem.setPackageName(app.getPackageName());
+                    itemAdapter.notifyItemEdited(editingItem);
                 } else {
                     // Multi add
                     processSelectedApps(newApps);
@@ -455,21 +426,22 @@ public class EditorActivity extends AppCompatActivity {
         dialog.show();
     }
     
-    private void processSelectedApps(List<AppInfoWrapper> apps) {
+    private void processSelectedApps(List<AppEntry> apps) {
         String[] options = {"Original Icon", "Colored Block"};
         new AlertDialog.Builder(this)
             .setTitle("Display Mode")
             .setItems(options, (d, which) -> {
-                for(AppInfoWrapper app : apps) {
-                    ShortcutItem item = new ShortcutItem(java.util.UUID.randomUUID().toString(), ShortcutItem.TYPE_APP, app.label);
-                    item.setPackageName(app.info.packageName);
+                int start = config.getItems().size();
+                for(AppEntry app : apps) {
+                    ShortcutItem item = new ShortcutItem(java.util.UUID.randomUUID().toString(), ShortcutItem.TYPE_APP, app.getLabel());
+                    item.setPackageName(app.getPackageName());
                     item.setDisplayMode(which);
                     if (which == ShortcutItem.MODE_COLOR_BLOCK) {
                         item.setColorInfo(generateUniqueColor());
                     }
                     config.getItems().add(item);
                 }
-                itemAdapter.notifyDataSetChanged();
+                itemAdapter.notifyItemRangeInserted(start, apps.size());
             })
             .show();
     }
@@ -509,7 +481,7 @@ public class EditorActivity extends AppCompatActivity {
                 if (editingItem == null) {
                     askDisplayMode(item);
                 } else {
-                    itemAdapter.notifyDataSetChanged();
+                    itemAdapter.notifyItemEdited(item);
                 }
             })
             .show();
@@ -547,7 +519,7 @@ public class EditorActivity extends AppCompatActivity {
                 if (pendingEditingItem == null) {
                     askDisplayMode(item);
                 } else {
-                    itemAdapter.notifyDataSetChanged();
+                    itemAdapter.notifyItemEdited(item);
                 }
             }
             pendingEditingItem = null;
@@ -589,37 +561,114 @@ public class EditorActivity extends AppCompatActivity {
         @Override public void onStopTrackingTouch(SeekBar s) {}
     }
     
+    /**
+     * Typing is debounced; each search runs on a background thread against an index of the
+     * apps loaded so far and is applied as a DiffUtil diff. Results are dropped if the
+     * shown list changed while they were computed, and the search is rerun instead.
+     */
     private class AppPickerAdapter extends RecyclerView.Adapter<AppPickerAdapter.VH> {
-        List<AppInfoWrapper> originalList;
-        List<AppInfoWrapper> displayList;
+        private static final long SEARCH_DEBOUNCE_MS = 120;
+        
+        List<AppEntry> originalList = new ArrayList<>();
+        List<AppEntry> displayList = new ArrayList<>();
+        String query = "";
+        final Handler searchHandler = new Handler(Looper.getMainLooper());
+        final Runnable searchRunnable = this::runSearch;
+        volatile boolean released;
+        AppSearchIndex index;          // index and indexVersion are only touched on SEARCH_EXECUTOR
+        int indexVersion = -1;
+        int listVersion;               // Bumped whenever originalList changes
+        int displayVersion;            // Bumped whenever displayList changes
         boolean singleSelection;
-        PackageManager pm;
         Set<String> existingPackages;
-        List<AppInfoWrapper> selected = new ArrayList<>();
+        List<AppEntry> selected = new ArrayList<>();
+        IconCache iconCache = IconCache.get(EditorActivity.this);
+        int iconSizePx = (int) (36 * getResources().getDisplayMetrics().density);
+        
+        final StableIds stableIds = new StableIds();
         
-        AppPickerAdapter(List<AppInfoWrapper> list, boolean singleSelection, PackageManager pm, Set<String> existingPackages) {
-            this.originalList = list;
-            this.displayList = new ArrayList<>(list);
+        AppPickerAdapter(boolean singleSelection, Set<String> existingPackages) {
             this.singleSelection = singleSelection;
-            this.pm = pm;
             this.existingPackages = existingPackages != null ? existingPackages : new HashSet<>();
+            setHasStableIds(true);
         }
         
-        List<AppInfoWrapper> getSelected() { return selected; }
+        @Override public long getItemId(int position) {
+            return stableIds.idFor(displayList.get(position).getPackageName());
+        }
+        
+        List<AppEntry> getSelected() { return selected; }
+        
+        /** Merges a label-sorted batch into the list, notifying only the inserted rows. */
+        void addBatch(List<AppEntry> batch) {
+            listVersion++;
+            if (!query.isEmpty()) {
+                // Ranked results have no label order to insert into; search again right away
+                for (AppEntry app : batch) originalList.add(insertionPoint(originalList, app), app);
+                searchHandler.removeCallbacks(searchRunnable);
+                runSearch();
+                return;
+            }
+            displayVersion++;
+            if (originalList.isEmpty()) {
+                // First (or only) batch is already sorted
+                originalList.addAll(batch);
+                displayList.addAll(batch);
+                notifyItemRangeInserted(0, batch.size());
+                return;
+            }
+            for (AppEntry app : batch) {
+                originalList.add(insertionPoint(originalList, app), app);
+                int pos = insertionPoint(displayList, app);
+                displayList.add(pos, app);
+                notifyItemInserted(pos);
+            }
+        }
+        
+        private int insertionPoint(List<AppEntry> list, AppEntry app) {
+            int idx = Collections.binarySearch(list, app, AppEntry.BY_LABEL);
+            return idx >= 0 ? idx : -(idx + 1);
+        }
         
         public void filter(String query) {
-            displayList.clear();
-            if (query.isEmpty()) {
-                displayList.addAll(originalList);
-            } else {
-                String q = query.toLowerCase();
-                for (AppInfoWrapper app : originalList) {
-                    if (app.label.toLowerCase().contains(q)) {
-                        displayList.add(app);
-                    }
+            this.query = query.trim();
+            searchHandler.removeCallbacks(searchRunnable);
+            searchHandler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MS);
+        }
+        
+        private void runSearch() {
+            if (released) return;
+            final String q = query;
+            final int version = displayVersion;
+            final int indexedVersion = listVersion;
+            final List<AppEntry> apps = new ArrayList<>(originalList);
+            final List<AppEntry> shown = new ArrayList<>(displayList);
+            SEARCH_EXECUTOR.execute(() -> {
+                if (released) return;
+                if (indexVersion != indexedVersion) {
+                    index = new AppSearchIndex(apps);
+                    indexVersion = indexedVersion;
                 }
-            }
-            notifyDataSetChanged();
+                List<AppEntry> results = index.search(q);
+                DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new AppDiff(shown, results));
+                searchHandler.post(() -> {
+                    if (released) return;
+                    if (!q.equals(query) || indexedVersion != listVersion) return; // A newer search is queued
+                    if (version != displayVersion) {
+                        runSearch();
+                        return;
+                    }
+                    displayVersion++;
+                    displayList = new ArrayList<>(results);
+                    diff.dispatchUpdatesTo(this);
+                });
+            });
+        }
+        
+        /** Stops searching once the dialog is gone; results still in flight are dropped. */
+        void release() {
+            released = true;
+            searchHandler.removeCallbacksAndMessages(null);
         }
         
         @NonNull @Override public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -627,11 +676,11 @@ public class EditorActivity extends AppCompatActivity {
         }
         
         @Override public void onBindViewHolder(@NonNull VH holder, int position) {
-            AppInfoWrapper item = displayList.get(position);
-            holder.tv.setText(item.label);
-            holder.icon.setImageDrawable(item.info.loadIcon(pm));
+            AppEntry item = displayList.get(position);
+            holder.tv.setText(item.getLabel());
+            iconCache.load(item.getPackageName(), iconSizePx, holder.icon);
             
-            boolean exists = existingPackages.contains(item.info.packageName);
+            boolean exists = existingPackages.contains(item.getPackageName());
             boolean isSelected = selected.contains(item);
             
             if (exists) {
@@ -650,19 +699,36 @@ public class EditorActivity extends AppCompatActivity {
                 if (exists) return; // Should not happen due to setEnabled(false) but safe guard
                 
                 if (singleSelection) {
+                    int previous = selected.isEmpty() ? -1 : displayList.indexOf(selected.get(0));
                     selected.clear();
                     selected.add(item);
-                    notifyDataSetChanged();
+                    if (previous >= 0) notifyItemChanged(previous);
+                    notifyItemChanged(holder.getBindingAdapterPosition());
                 } else {
                     if (selected.contains(item)) selected.remove(item);
                     else selected.add(item);
-                    notifyItemChanged(position);
+                    notifyItemChanged(holder.getBindingAdapterPosition());
                 }
             });
         }
         
         @Override public int getItemCount() { return displayList.size(); }
         
+        private class AppDiff extends DiffUtil.Callback {
+            final List<AppEntry> oldList, newList;
+            AppDiff(List<AppEntry> oldList, List<AppEntry> newList) {
+                this.oldList = oldList;
+                this.newList = newList;
+            }
+            @Override public int getOldListSize() { return oldList.size(); }
+            @Override public int getNewListSize() { return newList.size(); }
+            @Override public boolean areItemsTheSame(int o, int n) {
+                return oldList.get(o).getPackageName().equals(newList.get(n).getPackageName());
+            }
+            // Entries are immutable, so the same instance means the same row
+            @Override public boolean areContentsTheSame(int o, int n) { return oldList.get(o) == newList.get(n); }
+        }
+        
         class VH extends RecyclerView.ViewHolder {
             TextView tv;
             ImageView icon;
@@ -676,7 +742,23 @@ public class EditorActivity extends AppCompatActivity {
         }
     }
     
+    /** Rows are keyed by item id, and edits notify only the edited row. */
     private class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.Holder> {
+        final StableIds stableIds = new StableIds();
+        
+        ItemAdapter() {
+            setHasStableIds(true);
+        }
+        
+        @Override public long getItemId(int position) {
+            return stableIds.idFor(config.getItems().get(position).getId());
+        }
+        
+        void notifyItemEdited(ShortcutItem item) {
+            int pos = config.getItems().indexOf(item);
+            if (pos >= 0) notifyItemChanged(pos);
+        }
+        
         @NonNull @Override public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
             View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_transaction, parent, false); 
             return new Holder(v);
@@ -6,39 +6,53 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.provider.Settings;
+import android.text.InputType;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.CheckBox;
+import android.widget.EditText;
 import android.widget.ImageButton;
+import android.widget.LinearLayout;
 import android.widget.PopupMenu;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.view.WindowCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.shortapps.app.model.WindowConfig;
+import com.shortapps.app.utils.ConfigJson;
 import com.shortapps.app.utils.ConfigManager;
+import com.shortapps.app.utils.ConfigRepository;
+import com.shortapps.app.utils.SnapResolver;
+import com.shortapps.app.utils.StableIds;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.lang.reflect.Type;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Set;
 
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements ConfigRepository.Listener {
 
     private static final int REQUEST_CODE_EXPORT = 200;
     private static final int REQUEST_CODE_IMPORT = 201;
 
     private RecyclerView rv;
+    private ConfigRepository repository;
     private List<WindowConfig> configs;
     private WindowAdapter adapter;
 
@@ -50,15 +64,17 @@ public class MainActivity extends AppCompatActivity {
 
         checkPermissions();
 
+        repository = ConfigRepository.get(this);
+        configs = repository.getWindows();
+
         rv = findViewById(R.id.recyclerView);
         rv.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new WindowAdapter();
+        rv.setAdapter(adapter);
 
         FloatingActionButton fab = findViewById(R.id.fabAdd);
         fab.setOnClickListener(v -> {
-            WindowConfig newConfig = new WindowConfig("New Window " + (configs.size() + 1));
-            configs.add(newConfig);
-            save();
-            adapter.notifyItemInserted(configs.size() - 1);
+            repository.put(new WindowConfig("New Window " + (configs.size() + 1)));
         });
         
         ImageButton btnSettings = findViewById(R.id.btnSettings);
@@ -68,21 +84,24 @@ public class MainActivity extends AppCompatActivity {
     }
     
     @Override
-    protected void onResume() {
-        super.onResume();
-        loadData();
+    protected void onStart() {
+        super.onStart();
+        repository.addListener(this);
+        onConfigsChanged(null); // Catch up on edits made while stopped
     }
-    
-    private void loadData() {
-        configs = ConfigManager.loadWindows(this);
-        adapter = new WindowAdapter();
-        rv.setAdapter(adapter);
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        repository.removeListener(this);
+        repository.flush(); // Don't leave edits waiting out the quiet period in the background
     }
-    
-    private void save() {
-        ConfigManager.saveWindows(this, configs);
-        // Restart service to pick up changes
-        startService();
+
+    @Override
+    public void onConfigsChanged(Set<String> changedIds) {
+        configs = repository.getWindows();
+        // Diffed on a background thread; the snapshot is immutable, so it can be handed over as is
+        adapter.submitList(configs);
     }
     
     private void startService() {
@@ -106,6 +125,7 @@ public class MainActivity extends AppCompatActivity {
         PopupMenu popup = new PopupMenu(this, v);
         popup.getMenu().add(0, 1, 0, "Export Backup");
         popup.getMenu().add(0, 2, 0, "Import Backup");
+        popup.getMenu().add(0, 3, 0, "Snap Targets");
         
         popup.setOnMenuItemClickListener(item -> {
             if (item.getItemId() == 1) {
@@ -114,12 +134,68 @@ public class MainActivity extends AppCompatActivity {
             } else if (item.getItemId() == 2) {
                 importData();
                 return true;
+            } else if (item.getItemId() == 3) {
+                showSnapSettingsDialog();
+                return true;
             }
             return false;
         });
         popup.show();
     }
 
+    /** Extra snap targets every trigger can land on, on top of its own edges or corners. */
+    private void showSnapSettingsDialog() {
+        int targets = ConfigManager.loadSnapTargets(this);
+
+        LinearLayout container = new LinearLayout(this);
+        container.setOrientation(LinearLayout.VERTICAL);
+        container.setPadding(40, 40, 40, 40);
+
+        CheckBox grid = new CheckBox(this);
+        grid.setText("Snap to a grid");
+        grid.setChecked((targets & SnapResolver.TARGET_GRID) != 0);
+        container.addView(grid);
+
+        EditText gridSpacing = new EditText(this);
+        gridSpacing.setHint("Grid spacing (dp)");
+        gridSpacing.setInputType(InputType.TYPE_CLASS_NUMBER);
+        gridSpacing.setText(String.valueOf(ConfigManager.loadSnapGridDp(this)));
+        container.addView(gridSpacing);
+
+        CheckBox magnets = new CheckBox(this);
+        magnets.setText("Snap to magnets");
+        magnets.setChecked((targets & SnapResolver.TARGET_MAGNETS) != 0);
+        container.addView(magnets);
+
+        // Fractions of the area a trigger can move in: 0,0 is top left, 1,1 bottom right
+        EditText magnetPoints = new EditText(this);
+        magnetPoints.setHint("Magnets as x,y;x,y (0 to 1), e.g. 0.5,0.5");
+        magnetPoints.setText(ConfigManager.formatSnapMagnets(ConfigManager.loadSnapMagnets(this)));
+        container.addView(magnetPoints);
+
+        new AlertDialog.Builder(this)
+            .setTitle("Snap Targets")
+            .setView(container)
+            .setPositiveButton("Save", (d, w) -> {
+                int selected = targets & ~(SnapResolver.TARGET_GRID | SnapResolver.TARGET_MAGNETS);
+                if (grid.isChecked()) selected |= SnapResolver.TARGET_GRID;
+                if (magnets.isChecked()) selected |= SnapResolver.TARGET_MAGNETS;
+                int spacing;
+                try {
+                    spacing = Integer.parseInt(gridSpacing.getText().toString().trim());
+                } catch (NumberFormatException e) {
+                    spacing = ConfigManager.loadSnapGridDp(this);
+                }
+                ConfigManager.saveSnapTargets(this, selected, Math.max(8, spacing),
+                        ConfigManager.parseSnapMagnets(magnetPoints.getText().toString()));
+                Intent i = new Intent(this, OverlayService.class);
+                i.setAction(OverlayService.ACTION_SNAP_SETTINGS_CHANGED);
+                startService(i);
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
     private void exportData() {
         Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
         intent.addCategory(Intent.CATEGORY_OPENABLE);
@@ -155,9 +231,9 @@ public class MainActivity extends AppCompatActivity {
             OutputStream os = getContentResolver().openOutputStream(uri);
             if (os == null) return;
             
-            String json = new Gson().toJson(configs);
-            os.write(json.getBytes());
-            os.close();
+            Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+            ConfigJson.writeWindows(writer, configs);
+            writer.close();
             
             Toast.makeText(this, "Export Successful", Toast.LENGTH_SHORT).show();
         } catch (Exception e) {
@@ -171,22 +247,12 @@ public class MainActivity extends AppCompatActivity {
             InputStream is = getContentResolver().openInputStream(uri);
             if (is == null) return;
             
-            BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
-            is.close();
-            
-            Type type = new TypeToken<List<WindowConfig>>(){}.getType();
-            List<WindowConfig> imported = new Gson().fromJson(sb.toString(), type);
+            Reader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+            List<WindowConfig> imported = ConfigJson.readWindows(reader);
+            reader.close();
             
             if (imported != null) {
-                configs.clear();
-                configs.addAll(imported);
-                save();
-                adapter.notifyDataSetChanged();
+                repository.setAll(imported);
                 Toast.makeText(this, "Import Successful", Toast.LENGTH_SHORT).show();
             }
         } catch (Exception e) {
@@ -195,33 +261,51 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
-    class WindowAdapter extends RecyclerView.Adapter<WindowAdapter.Holder> {
+    /**
+     * Windows keyed by id. The repository replaces a window's object on every edit, so an
+     * unchanged instance means an unchanged row.
+     */
+    class WindowAdapter extends ListAdapter<WindowConfig, WindowAdapter.Holder> {
+        private final StableIds stableIds = new StableIds();
+        
+        WindowAdapter() {
+            super(new DiffUtil.ItemCallback<WindowConfig>() {
+                @Override public boolean areItemsTheSame(@NonNull WindowConfig a, @NonNull WindowConfig b) {
+                    return a.getId().equals(b.getId());
+                }
+                @Override public boolean areContentsTheSame(@NonNull WindowConfig a, @NonNull WindowConfig b) {
+                    return a == b;
+                }
+            });
+            setHasStableIds(true);
+        }
+        
+        @Override public long getItemId(int position) {
+            return stableIds.idFor(getItem(position).getId());
+        }
+        
         @NonNull @Override public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
             View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_window_config, parent, false);
             return new Holder(v);
         }
 
         @Override public void onBindViewHolder(@NonNull Holder holder, int position) {
-            WindowConfig c = configs.get(position);
+            WindowConfig c = getItem(position);
             holder.tvName.setText(c.getName());
             holder.tvInfo.setText(c.getItems().size() + " Items | " + c.getColumns() + " Cols");
             
             holder.itemView.setOnClickListener(v -> {
                 Intent i = new Intent(MainActivity.this, EditorActivity.class);
-                i.putExtra("window_index", position);
+                i.putExtra("window_id", c.getId());
                 startActivity(i);
             });
             
             holder.itemView.setOnLongClickListener(v -> {
-                configs.remove(position);
-                save();
-                notifyItemRemoved(position);
+                repository.remove(c.getId());
                 return true;
             });
         }
 
-        @Override public int getItemCount() { return configs.size(); }
-        
         class Holder extends RecyclerView.ViewHolder {
             TextView tvName, tvInfo;
             Holder(View v) {
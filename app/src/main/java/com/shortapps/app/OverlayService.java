@@ -1,8 +1,5 @@
 package com.shortapps.app;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
@@ -14,59 +11,110 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.PixelFormat;
-import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
+import android.hardware.display.DisplayManager;
 import android.os.Build;
 import android.os.IBinder;
+import android.util.DisplayMetrics;
+import android.util.LruCache;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.VelocityTracker;
+import android.view.ViewTreeObserver;
 import android.view.WindowManager;
 import android.view.animation.OvershootInterpolator;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.RemoteViews;
-import android.widget.TextView;
+import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.core.app.NotificationCompat;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.shortapps.app.model.ShortcutItem;
 import com.shortapps.app.model.WindowConfig;
-import com.shortapps.app.utils.ConfigManager;
+import com.shortapps.app.utils.AppCatalog;
+import com.shortapps.app.utils.ConfigRepository;
+import com.shortapps.app.utils.IconCache;
+import com.shortapps.app.utils.LaunchTable;
+import com.shortapps.app.utils.SnapResolver;
+import com.shortapps.app.utils.TriggerPositionStore;
+import com.shortapps.app.view.ShortcutAdapter;
+import com.shortapps.app.view.ShortcutGridView;
+import com.shortapps.app.view.SpringSnap;
+import com.shortapps.app.view.TriggerBackground;
 
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-public class OverlayService extends Service {
+public class OverlayService extends Service implements ConfigRepository.Listener {
 
     public static final String ACTION_TOGGLE_WINDOW = "com.shortapps.app.ACTION_TOGGLE_WINDOW";
     public static final String ACTION_SHOW_WINDOW = "com.shortapps.app.ACTION_SHOW_WINDOW";
     public static final String ACTION_HIDE_WINDOW = "com.shortapps.app.ACTION_HIDE_WINDOW";
+    public static final String ACTION_SNAP_SETTINGS_CHANGED = "com.shortapps.app.ACTION_SNAP_SETTINGS_CHANGED";
     
-    private WindowManager windowManager;
-    private Map<String, View> activeTriggers = new HashMap<>();
-    private Map<String, WindowManager.LayoutParams> triggerParamsMap = new HashMap<>();
+    private DisplayManager displayManager;
+    // Overlay hosts by display id; the default display's is always present
+    private final Map<Integer, DisplayHost> hosts = new HashMap<>();
+    private DisplayHost defaultHost;
+    private ConfigRepository repository;
+    private AppCatalog appCatalog;
+    private LaunchTable launchTable;
+    private final AppCatalog.Listener catalogListener = this::onCatalogChanged;
     private Map<String, View> activeWindows = new HashMap<>();
+    private SnapResolver.Settings snapSettings;
+    private static final int MAX_CACHED_WINDOWS = 4;
+    // Access-ordered so iteration starts at the least recently shown window
+    private final LinkedHashMap<String, BuiltWindow> windowCache = new LinkedHashMap<>(8, 0.75f, true);
+    // Bounded to 1/16th of the heap, in KB
+    private final LruCache<String, Snapshot> snapshots = new LruCache<String, Snapshot>((int) (Runtime.getRuntime().maxMemory() / 1024 / 16)) {
+        @Override
+        protected int sizeOf(String key, Snapshot value) {
+            return value.bitmap.getByteCount() / 1024;
+        }
+    };
+    // Window built speculatively on ACTION_DOWN that the current gesture has not committed yet
+    private String preparedWindowId;
     private List<WindowConfig> configs;
-    private int screenWidth;
-    private int screenHeight;
 
     @Override
     public void onCreate() {
         super.onCreate();
-        windowManager = (WindowManager) getSystemService(WINDOW_SERVICE);
-        updateScreenDimensions();
-        configs = ConfigManager.loadWindows(this);
+        repository = ConfigRepository.get(this);
+        configs = repository.getWindows();
+        displayManager = getSystemService(DisplayManager.class);
+        defaultHost = new DisplayHost(displayManager.getDisplay(Display.DEFAULT_DISPLAY), this);
+        hosts.put(Display.DEFAULT_DISPLAY, defaultHost);
+        for (Display display : displayManager.getDisplays(DisplayManager.DISPLAY_CATEGORY_PRESENTATION)) {
+            addHost(display);
+        }
+        displayManager.registerDisplayListener(displayListener, null);
         startForeground(1001, createNotification());
         refreshTriggers();
+        repository.addListener(this);
+        appCatalog = AppCatalog.get(this);
+        appCatalog.addListener(catalogListener);
+        launchTable = LaunchTable.get(this);
+        for (WindowConfig c : configs) {
+            prefetchIcons(c);
+            launchTable.prepare(c);
+        }
         
         IntentFilter filter = new IntentFilter();
         filter.addAction(ACTION_TOGGLE_WINDOW);
@@ -75,79 +123,224 @@ public class OverlayService extends Service {
         registerReceiver(internalReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
     }
     
-    private void updateScreenDimensions() {
-        screenWidth = getResources().getDisplayMetrics().widthPixels;
-        screenHeight = getResources().getDisplayMetrics().heightPixels;
-    }
-    
     @Override
     public void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
-        int oldWidth = screenWidth;
-        updateScreenDimensions();
-        
-        // Reposition triggers based on edge snapping logic
-        for (String id : triggerParamsMap.keySet()) {
-            WindowManager.LayoutParams params = triggerParamsMap.get(id);
-            View view = activeTriggers.get(id);
-            
-            if (params != null && view != null) {
-                // Determine snap logic based on config
-                WindowConfig c = null;
-                for(WindowConfig wc : configs) { if(wc.getId().equals(id)) { c=wc; break; } }
-                
-                if (c != null && c.isCornerSnap()) {
-                     int anchor = c.getCornerAnchor();
-                     // 0: TL, 1: TR, 2: BL, 3: BR
-                     if (anchor == -1) {
-                         // Fallback if anchor never set: calculate nearest based on old rel pos
-                         // but simpler to just default to nearest now
-                         snapToClosestCorner(params, view, c, false); // Snap immediately without anim update config only
-                     } else {
-                         // Force position based on anchor and NEW screen dimensions
-                         switch (anchor) {
-                             case 0: // TL
-                                 params.x = 0; 
-                                 params.y = 0; 
-                                 break;
-                             case 1: // TR
-                                 params.x = screenWidth - view.getWidth(); 
-                                 params.y = 0; 
-                                 break;
-                             case 2: // BL
-                                 params.x = 0; 
-                                 params.y = screenHeight - view.getHeight(); 
-                                 break;
-                             case 3: // BR
-                                 params.x = screenWidth - view.getWidth(); 
-                                 params.y = screenHeight - view.getHeight(); 
-                                 break;
-                         }
-                     }
-                } else {
-                    // Vertical Edge Logic
-                    if (params.x > oldWidth / 2) {
-                         params.x = screenWidth - view.getWidth();
-                    } else {
-                         params.x = 0;
-                    }
-                    
-                    // Clamp Y
-                    if (params.y > screenHeight - view.getHeight()) {
-                        params.y = screenHeight - view.getHeight();
-                    }
+        // Configuration changes are the default display's; other displays report through displayListener
+        int oldWidth = defaultHost.width;
+        // Theme, locale, night mode and the like leave the screen as it was; keep the caches.
+        // A size change has already dropped this display's snap targets in measure().
+        if (!defaultHost.measure()) return;
+        // Hidden windows and snapshots on this display were sized for the old screen
+        discardWindowsOn(defaultHost, false);
+        relayoutTriggers(defaultHost, oldWidth);
+    }
+
+    /**
+     * Re-lays out one display's triggers after its size changed. Every trigger moves to its
+     * saved position for the display's new bucket, so nothing is derived or written; only a
+     * trigger seeing the bucket for the first time is derived from where it was, and that
+     * position is recorded for the new bucket alone.
+     */
+    private void relayoutTriggers(DisplayHost host, int oldWidth) {
+        // A trigger still springing belongs where it was heading, in the old layout
+        for (Map.Entry<String, SpringSnap> e : host.snaps.entrySet()) {
+            e.getValue().cancel();
+            WindowConfig c = repository.find(e.getKey());
+            if (c == null) continue;
+            host.recordPosition(c, e.getValue().getTargetX(), e.getValue().getTargetY(), host.anchorOf(c));
+        }
+        host.snaps.clear();
+
+        String bucket = host.sizeBucket();
+        if (bucket.equals(host.bucket)) return;
+        // Anchors of the old layout, for triggers that have to be derived from it
+        Map<String, Integer> oldAnchors = new HashMap<>();
+        for (String id : host.triggerParams.keySet()) {
+            WindowConfig c = repository.find(id);
+            if (c != null) oldAnchors.put(id, host.anchorOf(c));
+        }
+        host.setBucket(bucket);
+
+        for (String id : host.triggerParams.keySet()) {
+            WindowManager.LayoutParams params = host.triggerParams.get(id);
+            View view = host.triggers.get(id);
+            WindowConfig c = repository.find(id);
+            if (params == null || view == null || c == null) continue;
+
+            int[] saved = host.savedPosition(c);
+            if (saved != null) {
+                params.x = saved[0];
+                params.y = saved[1];
+                try { host.windowManager.updateViewLayout(view, params); } catch (Exception e) {}
+                continue;
+            }
+
+            // First time on a screen like this: derive from the old layout
+            int anchor = oldAnchors.containsKey(id) ? oldAnchors.get(id) : -1;
+            if (c.isCornerSnap()) {
+                // 0: TL, 1: TR, 2: BL, 3: BR
+                if (anchor == -1) {
+                    snapToDestination(host, params, view, c, null); // Snaps and records immediately
+                    continue;
+                }
+                // Force position based on anchor and NEW screen dimensions
+                params.x = (anchor == 1 || anchor == 3) ? host.width - view.getWidth() : 0;
+                params.y = (anchor == 2 || anchor == 3) ? host.height - view.getHeight() : 0;
+            } else {
+                // Vertical Edge Logic
+                params.x = params.x > oldWidth / 2 ? host.width - view.getWidth() : 0;
+                // Clamp Y
+                if (params.y > host.height - view.getHeight()) {
+                    params.y = host.height - view.getHeight();
                 }
-                
-                try {
-                    windowManager.updateViewLayout(view, params);
-                    if (c != null) {
-                        c.setTriggerX(params.x);
-                        c.setTriggerY(params.y);
-                    }
-                } catch (Exception e) {}
             }
+
+            try { host.windowManager.updateViewLayout(view, params); } catch (Exception e) {}
+            host.recordPosition(c, params.x, params.y, anchor);
+        }
+    }
+
+    private final DisplayManager.DisplayListener displayListener = new DisplayManager.DisplayListener() {
+        @Override
+        public void onDisplayAdded(int displayId) {
+            DisplayHost host = addHost(displayManager.getDisplay(displayId));
+            if (host != null) refreshTriggers(host);
+        }
+
+        @Override
+        public void onDisplayRemoved(int displayId) {
+            removeHost(displayId);
+        }
+
+        @Override
+        public void onDisplayChanged(int displayId) {
+            // The default display's changes also arrive as configuration changes
+            if (displayId == Display.DEFAULT_DISPLAY) return;
+            DisplayHost host = hosts.get(displayId);
+            if (host == null) return;
+            int oldWidth = host.width;
+            if (!host.measure()) return;
+            // Only this display's windows and triggers were laid out for the old size
+            discardWindowsOn(host, true);
+            relayoutTriggers(host, oldWidth);
+        }
+    };
+
+    /**
+     * Hosts overlays on a secondary display: public presentation displays such as an
+     * external monitor. Returns null for displays that don't qualify or are already hosted.
+     */
+    private DisplayHost addHost(Display display) {
+        if (display == null || hosts.containsKey(display.getDisplayId())) return null;
+        int flags = display.getFlags();
+        if ((flags & Display.FLAG_PRESENTATION) == 0 || (flags & Display.FLAG_PRIVATE) != 0) return null;
+        Context context = createDisplayContext(display);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            context = context.createWindowContext(WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY, null);
+        }
+        DisplayHost host = new DisplayHost(display, context);
+        hosts.put(display.getDisplayId(), host);
+        return host;
+    }
+
+    private void removeHost(int displayId) {
+        if (displayId == Display.DEFAULT_DISPLAY) return;
+        DisplayHost host = hosts.remove(displayId);
+        if (host == null) return;
+        for (SpringSnap snap : host.snaps.values()) snap.cancel();
+        host.snaps.clear();
+        for (View v : host.triggers.values()) {
+            try { host.windowManager.removeView(v); } catch (Exception e) {}
+        }
+        host.triggers.clear();
+        host.triggerParams.clear();
+        discardWindowsOn(host, true);
+    }
+
+    /**
+     * Overlay state for one display: its window manager and metrics, the triggers shown on
+     * it and their snaps, and the bucket their positions are kept under. The default
+     * display's positions are the ones the configs carry; other displays keep theirs in the
+     * position store only, under buckets prefixed with the display's name.
+     */
+    private class DisplayHost {
+        final Display display;
+        final int displayId;
+        final boolean primary;
+        final Context context;
+        final WindowManager windowManager;
+        final Map<String, View> triggers = new HashMap<>();
+        final Map<String, WindowManager.LayoutParams> triggerParams = new HashMap<>();
+        final Map<String, Long> triggerVersions = new HashMap<>();
+        // Trigger snaps in flight, by window id
+        final Map<String, SpringSnap> snaps = new HashMap<>();
+        // Snap targets per trigger size and target set, for the current size
+        final Map<String, SnapResolver> snapResolvers = new HashMap<>();
+        int width, height;
+        float density;
+        String bucket;
+
+        DisplayHost(Display display, Context context) {
+            this.display = display;
+            this.displayId = display != null ? display.getDisplayId() : Display.DEFAULT_DISPLAY;
+            this.primary = displayId == Display.DEFAULT_DISPLAY;
+            this.context = context;
+            this.windowManager = (WindowManager) context.getSystemService(WINDOW_SERVICE);
+            measure();
+            bucket = sizeBucket();
+            if (primary && !bucket.equals(repository.getPositionBucket())) {
+                // The store took its bucket from whatever metrics the process first saw (e.g. an
+                // activity in another orientation); the configs have to carry this screen's layout
+                repository.setPositionBucket(bucket);
+                for (WindowConfig c : repository.getWindows()) repository.restorePosition(c);
+            }
+        }
+
+        /** Re-reads the display's metrics; true if its size or density changed. */
+        boolean measure() {
+            // A display context's resources are fixed at creation; a fresh one has the current metrics
+            DisplayMetrics dm = primary || display == null
+                    ? getResources().getDisplayMetrics()
+                    : createDisplayContext(display).getResources().getDisplayMetrics();
+            boolean changed = dm.widthPixels != width || dm.heightPixels != height || dm.density != density;
+            width = dm.widthPixels;
+            height = dm.heightPixels;
+            density = dm.density;
+            if (changed) snapResolvers.clear();
+            return changed;
+        }
+
+        String sizeBucket() {
+            String size = TriggerPositionStore.bucketFor(width, height, density);
+            return primary ? size : "d" + Integer.toHexString(display.getName().hashCode()) + "/" + size;
+        }
+
+        void setBucket(String bucket) {
+            this.bucket = bucket;
+            if (primary) repository.setPositionBucket(bucket);
+        }
+
+        /** Saved {x, y, anchor} for this display's current bucket, or null if there is none. */
+        int[] savedPosition(WindowConfig config) {
+            if (!primary) return repository.loadPosition(config.getId(), bucket);
+            if (!repository.restorePosition(config)) return null;
+            return new int[] {config.getTriggerX(), config.getTriggerY(), config.getCornerAnchor()};
+        }
+
+        int anchorOf(WindowConfig config) {
+            if (primary) return config.getCornerAnchor();
+            int[] saved = repository.loadPosition(config.getId(), bucket);
+            return saved != null ? saved[2] : -1;
+        }
+
+        void recordPosition(WindowConfig config, int x, int y, int anchor) {
+            if (!primary) {
+                repository.savePosition(config.getId(), bucket, x, y, anchor);
+                return;
+            }
+            repository.savePosition(config, x, y, anchor);
         }
-        ConfigManager.saveWindows(this, configs);
     }
     
     private final BroadcastReceiver internalReceiver = new BroadcastReceiver() {
@@ -160,28 +353,59 @@ public class OverlayService extends Service {
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (intent != null) {
-            configs = ConfigManager.loadWindows(this);
-            refreshTriggers();
-            updateNotification();
             handleIntent(intent);
         }
         return START_STICKY;
     }
+
+    @Override
+    public void onConfigsChanged(Set<String> changedIds) {
+        configs = repository.getWindows();
+        for (String id : changedIds) {
+            // Built windows reflect the old config; drop them so the next open rebuilds from the edit
+            discardWindow(id);
+            snapshots.remove(id);
+            WindowConfig c = repository.find(id);
+            if (c != null) {
+                prefetchIcons(c);
+                launchTable.prepare(c);
+            }
+        }
+        refreshTriggers();
+        updateNotification();
+    }
     
+    /** Windows showing a package that was installed, updated or removed get rebuilt on their next open. */
+    private void onCatalogChanged(String packageName) {
+        for (WindowConfig c : configs) {
+            if (packageName != null && !usesPackage(c, packageName)) continue;
+            BuiltWindow built = windowCache.get(c.getId());
+            if (built != null && built.attached) built.version = -1;
+            else discardWindow(c.getId());
+            snapshots.remove(c.getId());
+        }
+    }
+
+    private static boolean usesPackage(WindowConfig config, String packageName) {
+        for (ShortcutItem item : config.getItems()) {
+            if (item.getType() == ShortcutItem.TYPE_APP && packageName.equals(item.getPackageName())) return true;
+        }
+        return false;
+    }
+
     private void handleIntent(Intent intent) {
         String action = intent.getAction();
+        if (ACTION_SNAP_SETTINGS_CHANGED.equals(action)) {
+            // Targets are rebuilt from the new settings on the next release
+            snapSettings = null;
+            for (DisplayHost host : hosts.values()) host.snapResolvers.clear();
+            return;
+        }
         String windowName = intent.getStringExtra("window_name");
         
         if (windowName == null) return;
         
-        WindowConfig target = null;
-        for (WindowConfig c : configs) {
-            if (c.getName().equalsIgnoreCase(windowName)) {
-                target = c;
-                break;
-            }
-        }
-        
+        WindowConfig target = repository.findByName(windowName);
         if (target == null) return;
         
         if (ACTION_TOGGLE_WINDOW.equals(action)) {
@@ -193,63 +417,65 @@ public class OverlayService extends Service {
         }
     }
 
+    /**
+     * Brings the trigger overlays on every display in line with {@link #configs} by window
+     * id: new triggers are added, disabled or deleted ones removed, and changed ones updated
+     * in place. Triggers whose window version is unchanged are left untouched.
+     */
     private void refreshTriggers() {
-        for (String id : activeTriggers.keySet()) {
-            if (activeTriggers.get(id) != null) {
-                try {
-                    windowManager.removeView(activeTriggers.get(id));
-                } catch (Exception e) {}
-            }
-        }
-        activeTriggers.clear();
-        triggerParamsMap.clear();
-        
+        for (DisplayHost host : hosts.values()) refreshTriggers(host);
+    }
+
+    private void refreshTriggers(DisplayHost host) {
+        Set<String> wanted = new HashSet<>();
         for (WindowConfig c : configs) {
-            if (c.isTriggerEnabled()) {
-                addTrigger(c);
+            if (!c.isTriggerEnabled()) continue;
+            String id = c.getId();
+            wanted.add(id);
+            long version = repository.getVersion(id);
+            View trigger = host.triggers.get(id);
+            if (trigger == null) {
+                addTrigger(host, c);
+                host.triggerVersions.put(id, version);
+            } else if (!Long.valueOf(version).equals(host.triggerVersions.get(id))) {
+                updateTrigger(host, c, trigger, host.triggerParams.get(id));
+                host.triggerVersions.put(id, version);
             }
         }
+
+        Iterator<Map.Entry<String, View>> it = host.triggers.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, View> entry = it.next();
+            if (wanted.contains(entry.getKey())) continue;
+            try { host.windowManager.removeView(entry.getValue()); } catch (Exception e) {}
+            it.remove();
+            cancelSnap(host, entry.getKey());
+            host.triggerParams.remove(entry.getKey());
+            host.triggerVersions.remove(entry.getKey());
+        }
     }
-    
-    private void addTrigger(WindowConfig config) {
-        float d = getResources().getDisplayMetrics().density;
+
+    private void updateTrigger(DisplayHost host, WindowConfig config, View trigger, WindowManager.LayoutParams params) {
+        float d = host.density;
+        ((TriggerBackground) trigger.getTag()).apply(config, d);
+
+        // The live overlay position wins over the editor's copy, which may predate a drag
+        host.recordPosition(config, params.x, params.y, host.anchorOf(config));
+        params.width = (int) (config.getTriggerWidth() * d);
+        params.height = (int) (config.getTriggerHeight() * d);
+        try { host.windowManager.updateViewLayout(trigger, params); } catch (Exception e) {}
+    }
+
+    private void addTrigger(DisplayHost host, WindowConfig config) {
+        float d = host.density;
         int widthPx = (int) (config.getTriggerWidth() * d);
         int heightPx = (int) (config.getTriggerHeight() * d);
         
-        View trigger = new View(this);
-        GradientDrawable shape = new GradientDrawable();
-        shape.setShape(GradientDrawable.RECTANGLE);
-        
-        // 4 radii: TL, TR, BR, BL
-        float[] radii = new float[] {
-            config.getRadiusTL() * d, config.getRadiusTL() * d,
-            config.getRadiusTR() * d, config.getRadiusTR() * d,
-            config.getRadiusBR() * d, config.getRadiusBR() * d,
-            config.getRadiusBL() * d, config.getRadiusBL() * d
-        };
-        shape.setCornerRadii(radii);
-        
-        int color = config.getTriggerColor();
-        int style = config.getTriggerStyle();
-        
-        switch (style) {
-            case 0: shape.setColor(color); break; // Solid
-            case 1: // Outline
-                shape.setColor(Color.TRANSPARENT);
-                shape.setStroke(4, color);
-                break;
-            case 2: // Glass
-                shape.setColor(Color.argb(80, Color.red(color), Color.green(color), Color.blue(color)));
-                shape.setStroke(2, Color.WHITE);
-                break;
-            case 3: // Inverted
-                shape.setColor(Color.WHITE);
-                shape.setStroke(4, color);
-                break;
-            default: shape.setColor(color);
-        }
-        
-        trigger.setBackground(shape);
+        View trigger = new View(host.context);
+        TriggerBackground background = new TriggerBackground();
+        background.apply(config, d);
+        trigger.setBackground(background.getDrawable());
+        trigger.setTag(background);
         WindowManager.LayoutParams params = new WindowManager.LayoutParams(
                 widthPx, heightPx,
                 Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY : WindowManager.LayoutParams.TYPE_PHONE,
@@ -257,183 +483,337 @@ public class OverlayService extends Service {
                 PixelFormat.TRANSLUCENT
         );
         params.gravity = Gravity.TOP | Gravity.START;
-        params.x = config.getTriggerX();
-        params.y = config.getTriggerY();
+        int[] saved = host.primary ? null : host.savedPosition(config);
+        if (saved != null) {
+            params.x = saved[0];
+            params.y = saved[1];
+        } else if (host.primary) {
+            params.x = config.getTriggerX();
+            params.y = config.getTriggerY();
+        } else {
+            // New on this display: start from the default display's spot, kept on screen
+            params.x = Math.max(0, Math.min(config.getTriggerX(), host.width - widthPx));
+            params.y = Math.max(0, Math.min(config.getTriggerY(), host.height - heightPx));
+            host.recordPosition(config, params.x, params.y, -1);
+        }
         
-        trigger.setOnTouchListener(new TriggerTouchListener(config, params, trigger));
-        windowManager.addView(trigger, params);
-        activeTriggers.put(config.getId(), trigger);
-        triggerParamsMap.put(config.getId(), params);
+        trigger.setOnTouchListener(new TriggerTouchListener(host, config.getId(), params, trigger));
+        host.windowManager.addView(trigger, params);
+        host.triggers.put(config.getId(), trigger);
+        host.triggerParams.put(config.getId(), params);
     }
-    
-    private class TriggerTouchListener implements View.OnTouchListener {
-        private WindowConfig config;
+
+    /**
+     * Drags a trigger. Touch panels sample faster than the display refreshes, so moves only
+     * record the latest position and a Choreographer callback applies it once per frame:
+     * one WindowManager IPC per frame instead of one per event.
+     */
+    private class TriggerTouchListener implements View.OnTouchListener, Choreographer.FrameCallback {
+        private final DisplayHost host;
+        private final String windowId;
         private WindowManager.LayoutParams params;
         private View view;
         private int initialX, initialY;
         private float initialTouchX, initialTouchY;
         private boolean isDrag = false;
+        // This gesture stopped a snap short, so the trigger has to be snapped again when it ends
+        private boolean snapInterrupted;
+        // Latest position not yet applied to the window
+        private int pendingX, pendingY;
+        private boolean framePosted;
+        private VelocityTracker velocityTracker;
 
-        TriggerTouchListener(WindowConfig config, WindowManager.LayoutParams params, View view) {
-            this.config = config;
+        TriggerTouchListener(DisplayHost host, String windowId, WindowManager.LayoutParams params, View view) {
+            this.host = host;
+            this.windowId = windowId;
             this.params = params;
             this.view = view;
         }
 
         @Override
         public boolean onTouch(View v, MotionEvent event) {
-            switch (event.getAction()) {
+            // Resolve on every event: repository edits replace the config object
+            WindowConfig config = repository.find(windowId);
+            if (config == null) return false;
+            switch (event.getActionMasked()) {
                 case MotionEvent.ACTION_DOWN:
+                    // Grabbed mid-snap: stop where it is and drag from there
+                    snapInterrupted = cancelSnap(host, windowId);
                     initialX = params.x;
                     initialY = params.y;
                     initialTouchX = event.getRawX();
                     initialTouchY = event.getRawY();
                     isDrag = false;
+                    if (velocityTracker == null) velocityTracker = VelocityTracker.obtain();
+                    track(event);
                     view.animate().scaleX(0.9f).scaleY(0.9f).setDuration(100).start();
+                    // Most touches are taps: start building the window while the finger is down
+                    prepareWindow(config, host);
                     return true;
                 case MotionEvent.ACTION_MOVE:
-                    if (Math.abs(event.getRawX() - initialTouchX) > 20 || Math.abs(event.getRawY() - initialTouchY) > 20) {
+                    track(event);
+                    if (!isDrag && (Math.abs(event.getRawX() - initialTouchX) > 20 || Math.abs(event.getRawY() - initialTouchY) > 20)) {
                         isDrag = true;
+                        cancelPreparedWindow();
+                    }
+                    pendingX = initialX + (int) (event.getRawX() - initialTouchX);
+                    pendingY = initialY + (int) (event.getRawY() - initialTouchY);
+                    if (!framePosted) {
+                        framePosted = true;
+                        Choreographer.getInstance().postFrameCallback(this);
                     }
-                    params.x = initialX + (int) (event.getRawX() - initialTouchX);
-                    params.y = initialY + (int) (event.getRawY() - initialTouchY);
-                    try { windowManager.updateViewLayout(view, params); } catch (Exception e) {}
                     return true;
                 case MotionEvent.ACTION_UP:
+                    track(event);
+                    // Land the last sample now; the snap starts from params
+                    flushPending();
+                    view.animate().scaleX(1f).scaleY(1f).setDuration(100).start();
+                    if (isDrag) {
+                        snapToDestination(host, params, view, config, releaseVelocity());
+                    } else {
+                        toggleWindow(config, host);
+                        // A tap on a moving trigger still has to land it somewhere
+                        if (snapInterrupted) snapToDestination(host, params, view, config, new float[] {0, 0});
+                    }
+                    endGesture();
+                    preparedWindowId = null;
+                    return true;
+                case MotionEvent.ACTION_CANCEL:
+                    flushPending();
                     view.animate().scaleX(1f).scaleY(1f).setDuration(100).start();
-                    if (!isDrag) toggleWindow(config);
-                    else snapToDestination(params, view, config);
+                    // No release velocity to carry on with; settle from where it was left
+                    if (isDrag || snapInterrupted) snapToDestination(host, params, view, config, new float[] {0, 0});
+                    endGesture();
+                    cancelPreparedWindow();
                     return true;
             }
             return false;
         }
-    }
-    
-    private void snapToDestination(WindowManager.LayoutParams params, View view, WindowConfig config) {
-        if (config.isCornerSnap()) {
-            snapToClosestCorner(params, view, config, true);
-        } else {
-            snapToVerticalEdge(params, view, config);
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            framePosted = false;
+            applyPending();
+        }
+
+        /** Release velocity in px/s on screen axes; valid from ACTION_UP until the gesture ends. */
+        float[] releaseVelocity() {
+            if (velocityTracker == null) return new float[] {0, 0};
+            velocityTracker.computeCurrentVelocity(1000);
+            return new float[] {velocityTracker.getXVelocity(), velocityTracker.getYVelocity()};
         }
-    }
 
-    private void snapToClosestCorner(WindowManager.LayoutParams params, View view, WindowConfig config, boolean animate) {
-        int w = view.getWidth();
-        int h = view.getHeight();
-        int currentX = params.x;
-        int currentY = params.y;
+        // The view moves with the finger, so its local coordinates are useless for velocity;
+        // feed the tracker screen coordinates, historical samples included.
+        private void track(MotionEvent event) {
+            if (velocityTracker == null) return;
+            // Track in screen coordinates: shift the event (and its history) there and back
+            float dx = event.getRawX() - event.getX();
+            float dy = event.getRawY() - event.getY();
+            event.offsetLocation(dx, dy);
+            velocityTracker.addMovement(event);
+            event.offsetLocation(-dx, -dy);
+        }
 
-        // Define Corners
-        // 0: TL (0,0)
-        // 1: TR (screenWidth-w, 0)
-        // 2: BL (0, screenHeight-h)
-        // 3: BR (screenWidth-w, screenHeight-h)
+        private void flushPending() {
+            if (!framePosted) return;
+            Choreographer.getInstance().removeFrameCallback(this);
+            framePosted = false;
+            applyPending();
+        }
 
-        int[] xTargets = {0, screenWidth - w, 0, screenWidth - w};
-        int[] yTargets = {0, 0, screenHeight - h, screenHeight - h};
-        
-        int bestIdx = 0;
-        double minDesc = Double.MAX_VALUE;
-        
-        for (int i=0; i<4; i++) {
-            double dist = Math.pow(currentX - xTargets[i], 2) + Math.pow(currentY - yTargets[i], 2);
-            if (dist < minDesc) {
-                minDesc = dist;
-                bestIdx = i;
+        private void applyPending() {
+            if (params.x == pendingX && params.y == pendingY) return;
+            params.x = pendingX;
+            params.y = pendingY;
+            try { host.windowManager.updateViewLayout(view, params); } catch (Exception e) {}
+        }
+
+        private void endGesture() {
+            if (velocityTracker != null) {
+                velocityTracker.recycle();
+                velocityTracker = null;
             }
         }
-        
+    }
+    
+    /**
+     * Resolves where the released trigger should rest, clear of the other triggers on its
+     * display, and springs it there from the given release velocity; jumps straight there
+     * and records it when the velocity is null.
+     */
+    private void snapToDestination(DisplayHost host, WindowManager.LayoutParams params, View view, WindowConfig config, float[] velocity) {
+        int w = view.getWidth() > 0 ? view.getWidth() : params.width;
+        int h = view.getHeight() > 0 ? view.getHeight() : params.height;
+        float vx = velocity != null ? velocity[0] : 0;
+        float vy = velocity != null ? velocity[1] : 0;
+        SnapResolver.Result target = snapResolverFor(host, config, w, h)
+                .resolve(params.x, params.y, vx, vy, w, h, otherTriggerRects(host, config.getId()));
+
         // Save the anchor for rotation handling
-        config.setCornerAnchor(bestIdx);
-        
-        int targetX = xTargets[bestIdx];
-        int targetY = yTargets[bestIdx];
-        
-        if (animate) {
-            animateMove(params, view, config, targetX, targetY);
+        int anchor = config.isCornerSnap() ? target.anchor : host.anchorOf(config);
+
+        if (velocity != null) {
+            animateMove(host, params, view, config.getId(), target.x, target.y, anchor, velocity);
         } else {
-            params.x = targetX;
-            params.y = targetY;
-            try { windowManager.updateViewLayout(view, params); } catch (Exception e) {}
-            config.setTriggerX(targetX);
-            config.setTriggerY(targetY);
-            // Anchor already set above
+            params.x = target.x;
+            params.y = target.y;
+            try { host.windowManager.updateViewLayout(view, params); } catch (Exception e) {}
+            host.recordPosition(config, target.x, target.y, anchor);
         }
     }
-    
-    private void snapToVerticalEdge(WindowManager.LayoutParams params, View view, WindowConfig config) {
-        int mid = screenWidth / 2;
-        int targetX = (params.x > mid) ? screenWidth - view.getWidth() : 0;
-        int targetY = params.y; // Keep Y as is
-        
-        // Clamp Y
-        if (targetY < 0) targetY = 0;
-        if (targetY > screenHeight - view.getHeight()) targetY = screenHeight - view.getHeight();
-        
-        animateMove(params, view, config, targetX, targetY);
+
+    private SnapResolver snapResolverFor(DisplayHost host, WindowConfig config, int w, int h) {
+        if (snapSettings == null) snapSettings = SnapResolver.Settings.load(this);
+        int targets = (config.isCornerSnap() ? SnapResolver.TARGET_CORNERS : SnapResolver.TARGET_EDGES)
+                | snapSettings.extraTargets;
+        String key = w + "x" + h + ":" + targets;
+        SnapResolver resolver = host.snapResolvers.get(key);
+        if (resolver == null) {
+            resolver = new SnapResolver(host.width, host.height, w, h, host.density, targets, snapSettings);
+            host.snapResolvers.put(key, resolver);
+        }
+        return resolver;
+    }
+
+    /** Rects of every other trigger on the display, where it will come to rest if it is still snapping. */
+    private List<int[]> otherTriggerRects(DisplayHost host, String windowId) {
+        List<int[]> rects = new ArrayList<>(host.triggerParams.size());
+        for (Map.Entry<String, WindowManager.LayoutParams> e : host.triggerParams.entrySet()) {
+            if (e.getKey().equals(windowId)) continue;
+            WindowManager.LayoutParams p = e.getValue();
+            SpringSnap snap = host.snaps.get(e.getKey());
+            int x = snap != null ? snap.getTargetX() : p.x;
+            int y = snap != null ? snap.getTargetY() : p.y;
+            rects.add(new int[] {x, y, p.width, p.height});
+        }
+        return rects;
     }
     
-    private void animateMove(WindowManager.LayoutParams params, View view, WindowConfig config, int targetX, int targetY) {
-        ValueAnimator animX = ValueAnimator.ofInt(params.x, targetX);
-        ValueAnimator animY = ValueAnimator.ofInt(params.y, targetY);
-        
-        animX.addUpdateListener(animation -> {
-            params.x = (int) animation.getAnimatedValue();
-            // We update in one listener, but need latest Y from other animator? 
-            // Better to use a single animator update if possible or just update layout in both
-            try { windowManager.updateViewLayout(view, params); } catch (Exception e) {}
-        });
-        
-        animY.addUpdateListener(animation -> {
-             params.y = (int) animation.getAnimatedValue();
-             try { windowManager.updateViewLayout(view, params); } catch (Exception e) {}
-        });
-        
-        AnimatorListenerAdapter endListener = new AnimatorListenerAdapter() {
+    /** Springs the trigger to the target; one layout update per frame for both axes. */
+    private void animateMove(DisplayHost host, WindowManager.LayoutParams params, View view, String id,
+                             int targetX, int targetY, int anchor, float[] velocity) {
+        cancelSnap(host, id);
+        SpringSnap snap = new SpringSnap(new SpringSnap.Callback() {
             @Override
-            public void onAnimationEnd(Animator animation) {
-                config.setTriggerX(params.x);
-                config.setTriggerY(params.y);
-                saveConfigState(); 
+            public void onSpringUpdate(int x, int y) {
+                params.x = x;
+                params.y = y;
+                try { host.windowManager.updateViewLayout(view, params); } catch (Exception e) {}
             }
-        };
-        
-        // Use an AnimatorSet to run them together
-        android.animation.AnimatorSet set = new android.animation.AnimatorSet();
-        set.playTogether(animX, animY);
-        set.setDuration(300);
-        set.setInterpolator(new OvershootInterpolator());
-        set.addListener(endListener);
-        set.start();
+
+            @Override
+            public void onSpringEnd(int x, int y) {
+                host.snaps.remove(id);
+                WindowConfig current = repository.find(id);
+                if (current != null) host.recordPosition(current, x, y, anchor);
+            }
+        });
+        host.snaps.put(id, snap);
+        snap.start(params.x, params.y, velocity[0], velocity[1], targetX, targetY);
     }
-    
-    private void saveConfigState() {
-        ConfigManager.saveWindows(this, configs);
+
+    /** Stops the trigger's snap, if any, where it is. True if one was still running. */
+    private boolean cancelSnap(DisplayHost host, String windowId) {
+        SpringSnap snap = host.snaps.remove(windowId);
+        if (snap == null || !snap.isRunning()) return false;
+        snap.cancel();
+        return true;
     }
     
     private void toggleWindow(WindowConfig config) {
+        toggleWindow(config, defaultHost);
+    }
+
+    private void toggleWindow(WindowConfig config, DisplayHost host) {
         if (activeWindows.containsKey(config.getId())) hideWindow(config);
-        else showWindow(config);
+        else showWindow(config, host);
     }
     
-    private void showWindow(WindowConfig config) {
-        if (activeWindows.containsKey(config.getId())) return;
-        
-        FrameLayout rootContainer = new FrameLayout(this);
-        rootContainer.setOnClickListener(v -> hideWindow(config));
+    /**
+     * A window's view tree for one display, kept across hide/show until its config version
+     * changes, it is opened on another display or it is evicted.
+     */
+    private static class BuiltWindow {
+        final DisplayHost host;
+        final FrameLayout root;
+        final FrameLayout content;
+        final WindowManager.LayoutParams params;
+        long version;           // -1 once stale; rebuilt on the next open
+        boolean attached;
+        View grid;              // null until the live grid replaces the snapshot
+        ImageView placeholder;  // snapshot shown for the first frames, if any
+
+        BuiltWindow(DisplayHost host, FrameLayout root, FrameLayout content, WindowManager.LayoutParams params, long version) {
+            this.host = host;
+            this.root = root;
+            this.content = content;
+            this.params = params;
+            this.version = version;
+        }
+    }
+
+    /** Rendering of a window's grid from its last layout, valid for one config version on one display. */
+    private static class Snapshot {
+        final Bitmap bitmap;
+        final long version;
+        final int displayId;
+
+        Snapshot(Bitmap bitmap, long version, int displayId) {
+            this.bitmap = bitmap;
+            this.version = version;
+            this.displayId = displayId;
+        }
+    }
+
+    private BuiltWindow obtainWindow(WindowConfig config, DisplayHost host) {
+        return obtainWindow(config, host, false);
+    }
+
+    /** useSnapshot lets a rebuilt window start from its snapshot and bind the grid after the first frame. */
+    private BuiltWindow obtainWindow(WindowConfig config, DisplayHost host, boolean useSnapshot) {
+        String id = config.getId();
+        long version = repository.getVersion(id);
+        BuiltWindow built = windowCache.get(id);
+        if (built != null && built.version == version && built.host == host) return built;
+        if (built != null) discardWindow(id);
+
+        Snapshot snapshot = useSnapshot ? snapshots.get(id) : null;
+        if (snapshot != null && snapshot.version != version) {
+            snapshots.remove(id);
+            snapshot = null;
+        }
+        if (snapshot != null && snapshot.displayId != host.displayId) snapshot = null;
+        built = buildWindow(config, host, version, snapshot);
+        windowCache.put(id, built);
+        trimWindowCache(MAX_CACHED_WINDOWS);
+        return built;
+    }
+
+    private BuiltWindow buildWindow(WindowConfig config, DisplayHost host, long version, Snapshot snapshot) {
+        String id = config.getId();
+        Context context = host.context;
+        FrameLayout rootContainer = new FrameLayout(context);
+        rootContainer.setOnClickListener(v -> hideWindow(id));
         
-        FrameLayout contentFrame = new FrameLayout(this);
+        FrameLayout contentFrame = new FrameLayout(context);
         contentFrame.setBackgroundResource(R.drawable.bg_glass_panel);
-        contentFrame.setPadding(20, 20, 20, 20);
+        contentFrame.setPadding(PANEL_PADDING_PX, PANEL_PADDING_PX, PANEL_PADDING_PX, PANEL_PADDING_PX);
         contentFrame.setClickable(true);
         
-        RecyclerView rv = new RecyclerView(this);
-        rv.setLayoutManager(new GridLayoutManager(this, config.getColumns()));
-        rv.setAdapter(new ShortcutAdapter(config.getItems(), config));
-        contentFrame.addView(rv, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        View rv = null;
+        ImageView placeholder = null;
+        if (snapshot != null) {
+            placeholder = new ImageView(context);
+            placeholder.setImageBitmap(snapshot.bitmap);
+            contentFrame.addView(placeholder, new FrameLayout.LayoutParams(snapshot.bitmap.getWidth(), snapshot.bitmap.getHeight()));
+        } else {
+            rv = createGrid(config, host);
+            contentFrame.addView(rv, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        }
         
         FrameLayout.LayoutParams frameParams = new FrameLayout.LayoutParams(
-            (int) (320 * getResources().getDisplayMetrics().density), 
+            panelWidthFor(config, host), 
             ViewGroup.LayoutParams.WRAP_CONTENT
         );
         frameParams.gravity = Gravity.CENTER;
@@ -447,167 +827,242 @@ public class OverlayService extends Service {
                 PixelFormat.TRANSLUCENT
         );
         params.dimAmount = 0.4f;
+        BuiltWindow built = new BuiltWindow(host, rootContainer, contentFrame, params, version);
+        built.grid = rv;
+        built.placeholder = placeholder;
+        return built;
+    }
+
+    private View createGrid(WindowConfig config, DisplayHost host) {
+        Context context = host.context;
+        int itemSize = itemSizePx(config, host.density);
+        if (config.isDrawnGrid()) {
+            ShortcutGridView grid = new ShortcutGridView(context);
+            grid.setItems(config.getItems(), config.getColumns(), itemSize, config.isShowLabels());
+            grid.setOnItemClickListener(this::executeItem);
+            return grid;
+        }
+        RecyclerView rv = new RecyclerView(context);
+        rv.setLayoutManager(new GridLayoutManager(context, config.getColumns()));
+        ShortcutAdapter adapter = new ShortcutAdapter(context, config.getItems(), config.isShowLabels(), itemSize);
+        adapter.setOnItemClickListener(this::executeItem);
+        rv.setAdapter(adapter);
+        return rv;
+    }
+
+    /** Once the snapshot frame has been drawn, binds the real grid and drops the placeholder after its first layout. */
+    private void scheduleLiveGrid(BuiltWindow built, String id) {
+        built.root.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                built.root.getViewTreeObserver().removeOnPreDrawListener(this);
+                built.root.post(() -> {
+                    WindowConfig config = repository.find(id);
+                    if (config == null || windowCache.get(id) != built || built.grid != null) return;
+                    View rv = createGrid(config, built.host);
+                    built.grid = rv;
+                    built.content.addView(rv, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+                    rv.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+                        @Override
+                        public void onLayoutChange(View v, int l, int t, int r, int b, int ol, int ot, int or, int ob) {
+                            rv.removeOnLayoutChangeListener(this);
+                            built.content.post(() -> {
+                                if (built.placeholder != null) {
+                                    built.content.removeView(built.placeholder);
+                                    built.placeholder = null;
+                                }
+                            });
+                        }
+                    });
+                });
+                return true;
+            }
+        });
+    }
+
+    private void captureSnapshot(String id, BuiltWindow built) {
+        View rv = built.grid;
+        if (built.version != repository.getVersion(id)) return; // Would never be used
+        if (rv == null || built.placeholder != null || rv.getWidth() == 0 || rv.getHeight() == 0) return;
+        Snapshot old = snapshots.get(id);
+        Bitmap bmp;
+        if (old != null && old.bitmap.getWidth() == rv.getWidth() && old.bitmap.getHeight() == rv.getHeight()) {
+            bmp = old.bitmap;
+            bmp.eraseColor(Color.TRANSPARENT);
+        } else {
+            bmp = Bitmap.createBitmap(rv.getWidth(), rv.getHeight(), Bitmap.Config.ARGB_8888);
+        }
+        rv.draw(new Canvas(bmp));
+        snapshots.put(id, new Snapshot(bmp, built.version, built.host.displayId));
+    }
+
+    /**
+     * Builds, binds and lays out a hidden window ahead of a likely tap so that showWindow
+     * only has to attach it. A window that was built just for this gesture is dropped
+     * again by {@link #cancelPreparedWindow()} if the gesture turns into a drag.
+     */
+    private void prepareWindow(WindowConfig config, DisplayHost host) {
+        String id = config.getId();
+        if (activeWindows.containsKey(id)) return;
+        BuiltWindow cached = windowCache.get(id);
+        boolean fresh = cached == null || cached.version != repository.getVersion(id) || cached.host != host;
+
+        BuiltWindow built = obtainWindow(config, host);
+        if (fresh) {
+            built.root.measure(
+                View.MeasureSpec.makeMeasureSpec(host.width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(host.height, View.MeasureSpec.EXACTLY));
+            built.root.layout(0, 0, host.width, host.height);
+            preparedWindowId = id;
+        }
+    }
+
+    private void cancelPreparedWindow() {
+        if (preparedWindowId == null) return;
+        String id = preparedWindowId;
+        preparedWindowId = null;
+        if (!activeWindows.containsKey(id)) discardWindow(id);
+    }
+
+    private void showWindow(WindowConfig config) {
+        showWindow(config, defaultHost);
+    }
+
+    private void showWindow(WindowConfig config, DisplayHost host) {
+        if (activeWindows.containsKey(config.getId())) return;
         
-        windowManager.addView(rootContainer, params);
-        contentFrame.setAlpha(0f);
-        contentFrame.setScaleX(0.9f);
-        contentFrame.setScaleY(0.9f);
+        BuiltWindow built = obtainWindow(config, host, true);
+        FrameLayout contentFrame = built.content;
+        contentFrame.animate().cancel();
+        if (!built.attached) {
+            contentFrame.setAlpha(0f);
+            contentFrame.setScaleX(0.9f);
+            contentFrame.setScaleY(0.9f);
+            host.windowManager.addView(built.root, built.params);
+            built.attached = true;
+            if (built.grid == null) scheduleLiveGrid(built, config.getId());
+        }
+        // If a hide animation was still running we simply reverse from where it stopped
         contentFrame.animate().scaleX(1f).scaleY(1f).alpha(1f).setDuration(200).setInterpolator(new OvershootInterpolator(0.8f)).start();
-        activeWindows.put(config.getId(), rootContainer);
+        activeWindows.put(config.getId(), built.root);
     }
     
     private void hideWindow(WindowConfig config) {
-        View root = activeWindows.remove(config.getId());
-        if (root != null) {
-            View content = ((ViewGroup)root).getChildAt(0);
-            if (content != null) {
-                content.animate().scaleX(0.9f).scaleY(0.9f).alpha(0f).setDuration(150).withEndAction(() -> {
-                    try { windowManager.removeView(root); } catch (Exception e) {}
-                }).start();
-            } else {
-                 try { windowManager.removeView(root); } catch (Exception e) {}
-            }
-        }
+        hideWindow(config.getId());
     }
 
-    // Custom Square Layout for 1:1 Aspect Ratio
-    private static class SquareFrameLayout extends FrameLayout {
-        public SquareFrameLayout(Context context) { super(context); }
-        @Override protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-            super.onMeasure(widthMeasureSpec, widthMeasureSpec); // Force Height = Width
+    private void hideWindow(String id) {
+        View root = activeWindows.remove(id);
+        if (root == null) return;
+        BuiltWindow built = windowCache.get(id);
+        if (built == null || built.root != root) {
+            // Removed through the manager of the display it was added to
+            try { ((WindowManager) root.getContext().getSystemService(WINDOW_SERVICE)).removeView(root); } catch (Exception e) {}
+            return;
         }
+        built.content.animate().cancel();
+        built.content.animate().scaleX(0.9f).scaleY(0.9f).alpha(0f).setDuration(150).withEndAction(() -> {
+            detachWindow(built);
+            trimWindowCache(MAX_CACHED_WINDOWS);
+        }).start();
     }
 
-    private class ShortcutAdapter extends RecyclerView.Adapter<ShortcutAdapter.Holder> {
-        List<ShortcutItem> items;
-        WindowConfig parentConfig;
-        
-        ShortcutAdapter(List<ShortcutItem> items, WindowConfig parentConfig) { 
-            this.items = items; 
-            this.parentConfig = parentConfig;
+    private void detachWindow(BuiltWindow built) {
+        if (!built.attached) return;
+        try { built.host.windowManager.removeView(built.root); } catch (Exception e) {}
+        built.attached = false;
+    }
+
+    private void discardWindow(String id) {
+        BuiltWindow built = windowCache.remove(id);
+        if (built == null) return;
+        built.content.animate().cancel();
+        activeWindows.remove(id);
+        detachWindow(built);
+    }
+
+    /** Drops the windows (shown ones too, if asked) and snapshots built for one display, e.g. after it changed size. */
+    private void discardWindowsOn(DisplayHost host, boolean includeShown) {
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<String, BuiltWindow> e : windowCache.entrySet()) {
+            if (e.getValue().host == host && (includeShown || !e.getValue().attached)) ids.add(e.getKey());
+        }
+        for (String id : ids) discardWindow(id);
+        for (Map.Entry<String, Snapshot> e : snapshots.snapshot().entrySet()) {
+            if (e.getValue().displayId == host.displayId) snapshots.remove(e.getKey());
         }
+    }
 
-        @NonNull @Override public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-            FrameLayout v = new FrameLayout(parent.getContext());
-            v.setLayoutParams(new ViewGroup.MarginLayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
-            return new Holder(v);
+    /** Evicts least recently used hidden windows until at most max remain; shown ones are kept. */
+    private void trimWindowCache(int max) {
+        if (windowCache.size() <= max) return;
+        List<String> evict = new ArrayList<>();
+        int excess = windowCache.size() - max;
+        for (Map.Entry<String, BuiltWindow> e : windowCache.entrySet()) {
+            if (excess == 0) break;
+            if (!e.getValue().attached) {
+                evict.add(e.getKey());
+                excess--;
+            }
         }
+        for (String id : evict) {
+            // The cached tree serves reopens until now; only an evicted window needs a snapshot.
+            // Trimming to zero is a purge (memory pressure, new screen) that drops snapshots too.
+            if (max > 0) captureSnapshot(id, windowCache.get(id));
+            discardWindow(id);
+        }
+    }
 
-        @Override public void onBindViewHolder(@NonNull Holder holder, int position) {
-            ShortcutItem item = items.get(position);
-            holder.bind(item);
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        repository.flush();
+        // Running low or critical, or cached in the background; UI_HIDDEN only means the activity left
+        if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimWindowCache(0);
+            snapshots.evictAll();
         }
+    }
 
-        @Override public int getItemCount() { return items.size(); }
-        
-        class Holder extends RecyclerView.ViewHolder {
-            FrameLayout root;
-            SquareFrameLayout contentWrapper; // Use Square layout
-            ImageView icon;
-            View colorBlock;
-            TextView label;
-            
-            Holder(View v) { 
-                super(v); 
-                root = (FrameLayout) v;
-                root.setClickable(true);
-                root.setFocusable(true);
-                int pad = 8;
-                root.setPadding(pad, pad, pad, pad);
-                
-                contentWrapper = new SquareFrameLayout(OverlayService.this);
-                FrameLayout.LayoutParams wrapperParams = new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
-                wrapperParams.gravity = Gravity.CENTER_HORIZONTAL | Gravity.TOP;
-                root.addView(contentWrapper, wrapperParams);
+    private static final int CELL_PADDING_PX = 8;
+    private static final int PANEL_PADDING_PX = 20;
 
-                icon = new ImageView(OverlayService.this);
-                contentWrapper.addView(icon, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
-                
-                colorBlock = new View(OverlayService.this);
-                contentWrapper.addView(colorBlock, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
-                
-                label = new TextView(OverlayService.this);
-                label.setTextSize(12);
-                label.setTextColor(Color.WHITE);
-                label.setGravity(Gravity.CENTER);
-                label.setShadowLayer(2, 1, 1, Color.BLACK);
-                label.setMaxLines(1);
-                label.setEllipsize(android.text.TextUtils.TruncateAt.END);
-                
-                root.removeView(contentWrapper); 
-                
-                android.widget.LinearLayout linear = new android.widget.LinearLayout(OverlayService.this);
-                linear.setOrientation(android.widget.LinearLayout.VERTICAL);
-                linear.setLayoutParams(new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
-                root.addView(linear);
-                
-                linear.addView(contentWrapper);
-                
-                android.widget.LinearLayout.LayoutParams lpLabel = new android.widget.LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
-                lpLabel.topMargin = 4;
-                linear.addView(label, lpLabel);
-            }
-            
-            void bind(ShortcutItem item) {
-                root.setOnClickListener(v -> executeItem(item));
-                
-                if (parentConfig.isShowLabels()) {
-                    label.setVisibility(View.VISIBLE);
-                    label.setText(item.getLabel());
-                } else {
-                    label.setVisibility(View.GONE);
-                }
-                
-                if (item.getDisplayMode() == ShortcutItem.MODE_COLOR_BLOCK) {
-                    icon.setVisibility(View.GONE);
-                    colorBlock.setVisibility(View.VISIBLE);
-                    
-                    GradientDrawable bg = new GradientDrawable();
-                    bg.setCornerRadius(30); 
-                    bg.setColor(item.getColorInfo());
-                    colorBlock.setBackground(bg);
-                } else {
-                    colorBlock.setVisibility(View.GONE);
-                    icon.setVisibility(View.VISIBLE);
-                    try {
-                        if (item.getType() == ShortcutItem.TYPE_APP) {
-                            Drawable d = getPackageManager().getApplicationIcon(item.getPackageName());
-                            icon.setImageDrawable(d);
-                        } else {
-                            icon.setImageResource(android.R.drawable.ic_menu_compass);
-                            icon.setColorFilter(Color.WHITE);
-                        }
-                    } catch (Exception e) {
-                        icon.setImageResource(android.R.drawable.sym_def_app_icon);
-                    }
-                }
+    private static int itemSizePx(WindowConfig config, float density) {
+        return (int) (config.getItemSizeDp() * density);
+    }
+
+    // At least the classic 320dp panel, wider when columns x item size needs it, never wider than the screen
+    private int panelWidthFor(WindowConfig config, DisplayHost host) {
+        float d = host.density;
+        int needed = config.getColumns() * (itemSizePx(config, d) + 2 * CELL_PADDING_PX) + 2 * PANEL_PADDING_PX;
+        return Math.min(Math.max((int) (320 * d), needed), host.width);
+    }
+
+    /** Renders a window's app icons at its exact cell size on each display ahead of the first open. */
+    private void prefetchIcons(WindowConfig config) {
+        List<String> packages = new ArrayList<>();
+        for (ShortcutItem item : config.getItems()) {
+            if (item.getType() == ShortcutItem.TYPE_APP && item.getPackageName() != null
+                    && item.getDisplayMode() == ShortcutItem.MODE_ICON
+                    && !appCatalog.isMissing(item.getPackageName())) {
+                packages.add(item.getPackageName());
             }
         }
+        Set<Integer> sizes = new HashSet<>();
+        for (DisplayHost host : hosts.values()) {
+            int size = itemSizePx(config, host.density);
+            if (sizes.add(size)) IconCache.get(this).prefetch(packages, size);
+        }
     }
-    
+
     private void executeItem(ShortcutItem item) {
-        try {
-            if (item.getType() == ShortcutItem.TYPE_APP) {
-                Intent launch = getPackageManager().getLaunchIntentForPackage(item.getPackageName());
-                if (launch != null) {
-                    launch.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-                    startActivity(launch);
-                }
-            } else if (item.getType() == ShortcutItem.TYPE_TASKER) {
-                Intent b = new Intent("net.dinglisch.android.tasker.ACTION_TASK");
-                b.putExtra("task_name", item.getTaskerTaskName());
-                sendBroadcast(b);
-            } else if (item.getType() == ShortcutItem.TYPE_SHORTCUT) {
-                 Intent i = Intent.parseUri(item.getIntentUri(), 0);
-                 i.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-                 startActivity(i);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        for (WindowConfig c : configs) {
-            if (activeWindows.containsKey(c.getId())) hideWindow(c);
+        if (item.getType() == ShortcutItem.TYPE_APP && appCatalog.isMissing(item.getPackageName())) {
+            Toast.makeText(this, "App not installed", Toast.LENGTH_SHORT).show();
+            return;
         }
+        launchTable.fire(this, item);
+        if (activeWindows.isEmpty()) return;
+        for (String id : new ArrayList<>(activeWindows.keySet())) hideWindow(id);
     }
 
     private Notification createNotification() {
@@ -663,8 +1118,20 @@ public class OverlayService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        for (View v : activeTriggers.values()) windowManager.removeView(v);
-        for (View v : activeWindows.values()) windowManager.removeView(v);
+        repository.removeListener(this);
+        repository.flushAndWait();
+        appCatalog.removeListener(catalogListener);
+        displayManager.unregisterDisplayListener(displayListener);
+        for (DisplayHost host : hosts.values()) {
+            for (SpringSnap snap : host.snaps.values()) snap.cancel();
+            host.snaps.clear();
+            for (View v : host.triggers.values()) {
+                try { host.windowManager.removeView(v); } catch (Exception e) {}
+            }
+        }
+        for (BuiltWindow w : windowCache.values()) detachWindow(w);
+        windowCache.clear();
+        activeWindows.clear();
         unregisterReceiver(internalReceiver);
     }
 
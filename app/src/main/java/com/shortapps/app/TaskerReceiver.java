@@ -5,18 +5,24 @@ import android.content.Context;
 import android.content.Intent;
 import android.widget.Toast;
 
+import com.shortapps.app.utils.ConfigRepository;
+import com.shortapps.app.utils.WindowStore;
+
 public class TaskerReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
         String action = intent.getAction();
         if (action == null) return;
+        String windowName = intent.getStringExtra("window_name");
+        // A name no window has would only start the service for nothing
+        if (windowName != null && !windowExists(context, windowName)) return;
 
         // Relay to Service
         Intent serviceIntent = new Intent(context, OverlayService.class);
         serviceIntent.setAction(action);
         
-        if (intent.hasExtra("window_name")) {
-            serviceIntent.putExtra("window_name", intent.getStringExtra("window_name"));
+        if (windowName != null) {
+            serviceIntent.putExtra("window_name", windowName);
         }
         
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
@@ -25,4 +31,14 @@ public class TaskerReceiver extends BroadcastReceiver {
             context.startService(serviceIntent);
         }
     }
-}
\ No newline at end of file
+
+    // In-memory map when the app is running; otherwise one read of the lookup file
+    private static boolean windowExists(Context context, String name) {
+        ConfigRepository repository = ConfigRepository.peek();
+        if (repository != null) return repository.findByName(name) != null;
+        WindowStore store = WindowStore.get(context);
+        // Not migrated yet: let the service load everything and decide
+        if (!store.exists()) return true;
+        return store.findWindowIdByName(name) != null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.shortapps.app.model;
+
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/** A launchable app as listed in the app picker and persisted in the app catalog. */
+public class AppEntry {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    public static final Comparator<AppEntry> BY_LABEL = (a, b) -> {
+        int c = a.sortKey.compareTo(b.sortKey);
+        return c != 0 ? c : a.packageName.compareTo(b.packageName);
+    };
+
+    private final String packageName;
+    private final String label;
+    private final String sortKey;
+    private final long versionCode;
+
+    public AppEntry(String packageName, String label, long versionCode) {
+        this.packageName = packageName;
+        this.label = label;
+        this.sortKey = sortKeyFor(label);
+        this.versionCode = versionCode;
+    }
+
+    public String getPackageName() { return packageName; }
+    public String getLabel() { return label; }
+    public String getSortKey() { return sortKey; }
+    public long getVersionCode() { return versionCode; }
+
+    /** Key prefix under which IconCache stores this app's icons. */
+    public String getIconKey() { return iconKeyFor(packageName, versionCode); }
+
+    public static String iconKeyFor(String packageName, long versionCode) {
+        return packageName + "_" + versionCode;
+    }
+
+    /** Lower-cased label with diacritics removed, so accented labels sort next to plain ones. */
+    public static String sortKeyFor(String label) {
+        String decomposed = Normalizer.normalize(label, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,11 @@
 package com.shortapps.app.model;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
 public class ShortcutItem {
     public static final int TYPE_APP = 0;
     public static final int TYPE_TASKER = 1;
@@ -24,6 +30,49 @@ public class ShortcutItem {
         this.displayMode = MODE_ICON;
     }
 
+    // For readFrom: fields missing from the JSON stay zero/null, as they did with Gson
+    private ShortcutItem() {}
+
+    /** Writes the same JSON Gson produced for this class: declaration order, nulls omitted. */
+    public void writeTo(JsonWriter out) throws IOException {
+        out.beginObject();
+        if (id != null) out.name("id").value(id);
+        out.name("type").value(type);
+        if (label != null) out.name("label").value(label);
+        if (packageName != null) out.name("packageName").value(packageName);
+        if (intentUri != null) out.name("intentUri").value(intentUri);
+        if (taskerTaskName != null) out.name("taskerTaskName").value(taskerTaskName);
+        out.name("displayMode").value(displayMode);
+        out.name("colorInfo").value(colorInfo);
+        out.endObject();
+    }
+
+    /** Reads an object written by {@link #writeTo} (or by Gson); unknown fields are skipped. */
+    public static ShortcutItem readFrom(JsonReader in) throws IOException {
+        ShortcutItem item = new ShortcutItem();
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "id": item.id = in.nextString(); break;
+                case "type": item.type = in.nextInt(); break;
+                case "label": item.label = in.nextString(); break;
+                case "packageName": item.packageName = in.nextString(); break;
+                case "intentUri": item.intentUri = in.nextString(); break;
+                case "taskerTaskName": item.taskerTaskName = in.nextString(); break;
+                case "displayMode": item.displayMode = in.nextInt(); break;
+                case "colorInfo": item.colorInfo = in.nextInt(); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return item;
+    }
+
     // Getters and Setters
     public String getId() { return id; }
     public int getType() { return type; }
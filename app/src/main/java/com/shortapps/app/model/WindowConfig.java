@@ -1,6 +1,12 @@
 package com.shortapps.app.model;
 
 import android.graphics.Color;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -17,6 +23,7 @@ public class WindowConfig {
     
     // Window Settings
     private boolean showLabels;
+    private boolean drawnGrid; // Draw the grid in a single view instead of one view tree per item
     
     // Trigger Button Settings
     private boolean triggerEnabled;
@@ -68,6 +75,106 @@ public class WindowConfig {
         this.triggerY = 300;
     }
 
+    // For readFrom (and Gson): fields missing from the JSON stay zero/null, except the
+    // corner anchor, which reads back unset; records no longer carry trigger positions
+    private WindowConfig() {
+        this.cornerAnchor = -1;
+    }
+
+    /**
+     * Writes the same JSON Gson produced for this class: fields in declaration order,
+     * nulls omitted. Trigger position fields are left out unless includePosition is set.
+     */
+    public void writeTo(JsonWriter out, boolean includePosition) throws IOException {
+        out.beginObject();
+        if (id != null) out.name("id").value(id);
+        if (name != null) out.name("name").value(name);
+        out.name("columns").value(columns);
+        out.name("itemSizeDp").value(itemSizeDp);
+        if (items != null) {
+            out.name("items").beginArray();
+            for (ShortcutItem item : items) {
+                if (item != null) item.writeTo(out);
+                else out.nullValue();
+            }
+            out.endArray();
+        }
+        out.name("enabledInNotification").value(enabledInNotification);
+        out.name("showLabels").value(showLabels);
+        out.name("drawnGrid").value(drawnGrid);
+        out.name("triggerEnabled").value(triggerEnabled);
+        out.name("cornerSnap").value(cornerSnap);
+        if (includePosition) out.name("cornerAnchor").value(cornerAnchor);
+        out.name("triggerWidth").value(triggerWidth);
+        out.name("triggerHeight").value(triggerHeight);
+        out.name("radiusTL").value(radiusTL);
+        out.name("radiusTR").value(radiusTR);
+        out.name("radiusBL").value(radiusBL);
+        out.name("radiusBR").value(radiusBR);
+        out.name("triggerColor").value(triggerColor);
+        out.name("triggerStyle").value(triggerStyle);
+        if (includePosition) {
+            out.name("triggerX").value(triggerX);
+            out.name("triggerY").value(triggerY);
+        }
+        out.name("triggerSize").value(triggerSize);
+        out.name("triggerRadius").value(triggerRadius);
+        out.endObject();
+    }
+
+    /** Reads an object written by {@link #writeTo} (or by Gson); unknown fields are skipped. */
+    public static WindowConfig readFrom(JsonReader in) throws IOException {
+        WindowConfig c = new WindowConfig();
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "id": c.id = in.nextString(); break;
+                case "name": c.name = in.nextString(); break;
+                case "columns": c.columns = in.nextInt(); break;
+                case "itemSizeDp": c.itemSizeDp = in.nextInt(); break;
+                case "items":
+                    c.items = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            c.items.add(null);
+                        } else {
+                            c.items.add(ShortcutItem.readFrom(in));
+                        }
+                    }
+                    in.endArray();
+                    break;
+                case "enabledInNotification": c.enabledInNotification = in.nextBoolean(); break;
+                case "showLabels": c.showLabels = in.nextBoolean(); break;
+                case "drawnGrid": c.drawnGrid = in.nextBoolean(); break;
+                case "triggerEnabled": c.triggerEnabled = in.nextBoolean(); break;
+                case "cornerSnap": c.cornerSnap = in.nextBoolean(); break;
+                case "cornerAnchor": c.cornerAnchor = in.nextInt(); break;
+                case "triggerWidth": c.triggerWidth = in.nextInt(); break;
+                case "triggerHeight": c.triggerHeight = in.nextInt(); break;
+                case "radiusTL": c.radiusTL = in.nextInt(); break;
+                case "radiusTR": c.radiusTR = in.nextInt(); break;
+                case "radiusBL": c.radiusBL = in.nextInt(); break;
+                case "radiusBR": c.radiusBR = in.nextInt(); break;
+                case "triggerColor": c.triggerColor = in.nextInt(); break;
+                case "triggerStyle": c.triggerStyle = in.nextInt(); break;
+                case "triggerX": c.triggerX = in.nextInt(); break;
+                case "triggerY": c.triggerY = in.nextInt(); break;
+                case "triggerSize": c.triggerSize = in.nextInt(); break;
+                case "triggerRadius": c.triggerRadius = in.nextInt(); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return c;
+    }
+
     public String getId() { return id; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -75,7 +182,7 @@ public class WindowConfig {
     public int getColumns() { return columns; }
     public void setColumns(int columns) { this.columns = columns; }
     
-    public int getItemSizeDp() { return itemSizeDp; }
+    public int getItemSizeDp() { return itemSizeDp > 0 ? itemSizeDp : 50; }
     public void setItemSizeDp(int itemSizeDp) { this.itemSizeDp = itemSizeDp; }
     
     public List<ShortcutItem> getItems() { return items; }
@@ -87,6 +194,9 @@ public class WindowConfig {
     public boolean isShowLabels() { return showLabels; }
     public void setShowLabels(boolean showLabels) { this.showLabels = showLabels; }
     
+    public boolean isDrawnGrid() { return drawnGrid; }
+    public void setDrawnGrid(boolean drawnGrid) { this.drawnGrid = drawnGrid; }
+    
     public boolean isTriggerEnabled() { return triggerEnabled; }
     public void setTriggerEnabled(boolean triggerEnabled) { this.triggerEnabled = triggerEnabled; }
     
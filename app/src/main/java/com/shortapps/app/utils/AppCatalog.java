@@ -0,0 +1,301 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+import android.content.pm.ChangedPackages;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.shortapps.app.model.AppEntry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persisted list of launchable apps (filesDir/app_catalog.json). It is read once per
+ * process, patched per package from {@link PackageMonitor} broadcasts and from
+ * PackageManager's changed-packages sequence for anything missed while the process was
+ * dead, and fully re-enumerated only when the file is missing or was written under a
+ * different build or locale.
+ *
+ * It also answers whether an app shortcut's package is still launchable, so dead entries
+ * can be skipped without a PackageManager call.
+ */
+public class AppCatalog implements PackageMonitor.Listener {
+    private static final String TAG = "AppCatalog";
+    private static final String FILE_NAME = "app_catalog.json";
+
+    public interface Listener {
+        /** Called on the main thread; packageName is null after a full rebuild. */
+        void onCatalogChanged(String packageName);
+    }
+
+    /** A picker waiting on the catalog's first load. */
+    private static class Waiter {
+        final AppEnumerator.Task task;
+        final AppEnumerator.Sink sink;
+
+        Waiter(AppEnumerator.Task task, AppEnumerator.Sink sink) {
+            this.task = task;
+            this.sink = sink;
+        }
+    }
+
+    /** On-disk form. */
+    private static class Snapshot {
+        String fingerprint;
+        int bootCount;
+        int sequence;
+        List<AppEntry> apps;
+    }
+
+    private static AppCatalog instance;
+
+    private final Context appContext;
+    private final File file;
+    private final Gson gson = new Gson();
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Null until loaded; replaced wholesale so readers never see a partial map
+    private volatile Map<String, AppEntry> entries;
+    private int sequence;
+    // Until entries is first set: apps a rebuild has streamed so far, and the pickers that
+    // queried meanwhile and get the rest as it comes. Null once loaded. Guarded by waiters.
+    private List<AppEntry> streamed = new ArrayList<>();
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    public static synchronized AppCatalog get(Context context) {
+        if (instance == null) {
+            instance = new AppCatalog(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private AppCatalog(Context appContext) {
+        this.appContext = appContext;
+        this.file = new File(appContext.getFilesDir(), FILE_NAME);
+        PackageMonitor.get(appContext).addListener(this);
+        io.execute(this::loadFromDisk);
+    }
+
+    /**
+     * True if the catalog is loaded and the package has no launcher activity any more.
+     * While the catalog is still loading nothing is reported missing.
+     */
+    public boolean isMissing(String packageName) {
+        Map<String, AppEntry> current = entries;
+        return current != null && packageName != null && !current.containsKey(packageName);
+    }
+
+    /**
+     * Delivers the catalog to the sink on the main thread: as one sorted batch when it is
+     * already loaded, or, while the first load is still enumerating, what it has found so far
+     * followed by the rest in batches as they come.
+     */
+    public AppEnumerator.Task query(AppEnumerator.Sink sink) {
+        AppEnumerator.Task task = new AppEnumerator.Task();
+        synchronized (waiters) {
+            if (streamed != null) {
+                List<AppEntry> soFar = new ArrayList<>(streamed);
+                Collections.sort(soFar, AppEntry.BY_LABEL);
+                waiters.add(new Waiter(task, sink));
+                // Posted under the lock, so it lands before any later batch
+                if (!soFar.isEmpty()) {
+                    mainHandler.post(() -> {
+                        if (!task.isCancelled()) sink.onBatch(soFar);
+                    });
+                }
+                return task;
+            }
+        }
+        io.execute(() -> {
+            List<AppEntry> all = sorted();
+            mainHandler.post(() -> {
+                if (task.isCancelled()) return;
+                if (!all.isEmpty()) sink.onBatch(all);
+                sink.onComplete();
+            });
+        });
+        return task;
+    }
+
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    @Override
+    public void onPackageChanged(String packageName, boolean removed) {
+        io.execute(() -> {
+            if (entries == null) return; // The pending load or rebuild will see it
+            if (applyChange(packageName)) {
+                save();
+                notifyChanged(packageName);
+            }
+        });
+    }
+
+    // --- io thread ---
+
+    private void loadFromDisk() {
+        Snapshot snapshot = read();
+        if (snapshot == null || snapshot.apps == null || !fingerprint().equals(snapshot.fingerprint)) {
+            // Rebuild now rather than on the first picker query, so isMissing works for the
+            // overlay; pickers opened meanwhile are fed from it as it goes
+            rebuild();
+            return;
+        }
+        Map<String, AppEntry> loaded = new HashMap<>();
+        for (AppEntry e : snapshot.apps) loaded.put(e.getPackageName(), e);
+        entries = loaded;
+        // Sequence numbers restart at boot; after a reboot replay everything since boot
+        sequence = snapshot.bootCount == bootCount() ? snapshot.sequence : 0;
+        primeIconVersions(loaded);
+
+        // Catch up on installs and uninstalls that happened while we weren't listening
+        ChangedPackages changed = appContext.getPackageManager().getChangedPackages(sequence);
+        if (changed != null) {
+            boolean any = false;
+            for (String pkg : changed.getPackageNames()) any |= applyChange(pkg);
+            sequence = changed.getSequenceNumber();
+            save();
+            if (any) notifyChanged(null);
+        }
+        finishStreaming(sorted());
+    }
+
+    /** Enumerates every app, streaming batches to waiting pickers, and installs the result as the catalog. */
+    private void rebuild() {
+        ChangedPackages baseline = appContext.getPackageManager().getChangedPackages(0);
+        int startSequence = baseline != null ? baseline.getSequenceNumber() : 0;
+        Map<String, AppEntry> built = new HashMap<>();
+        AppEnumerator.enumerateBlocking(appContext, new AppEnumerator.Task(), batch -> {
+            for (AppEntry e : batch) built.put(e.getPackageName(), e);
+            synchronized (waiters) {
+                streamed.addAll(batch);
+                for (Waiter w : waiters) {
+                    mainHandler.post(() -> {
+                        if (!w.task.isCancelled()) w.sink.onBatch(batch);
+                    });
+                }
+            }
+        });
+        entries = built;
+        sequence = startSequence;
+        primeIconVersions(built);
+        save();
+        notifyChanged(null);
+        finishStreaming(null);
+    }
+
+    /** Hands waiting pickers whatever they haven't been streamed yet and completes them. */
+    private void finishStreaming(List<AppEntry> remaining) {
+        synchronized (waiters) {
+            for (Waiter w : waiters) {
+                mainHandler.post(() -> {
+                    if (w.task.isCancelled()) return;
+                    if (remaining != null && !remaining.isEmpty()) w.sink.onBatch(remaining);
+                    w.sink.onComplete();
+                });
+            }
+            waiters.clear();
+            streamed = null;
+        }
+    }
+
+    /** Re-resolves one package against PackageManager. Returns true if the catalog changed. */
+    private boolean applyChange(String packageName) {
+        AppEntry resolved = AppEnumerator.resolve(appContext, packageName);
+        AppEntry existing = entries.get(packageName);
+        if (resolved == null && existing == null) return false;
+        if (resolved != null && existing != null
+                && resolved.getVersionCode() == existing.getVersionCode()
+                && resolved.getLabel().equals(existing.getLabel())) {
+            return false;
+        }
+        Map<String, AppEntry> next = new HashMap<>(entries);
+        if (resolved != null) {
+            next.put(packageName, resolved);
+            IconCache.get(appContext).primeVersionCode(packageName, resolved.getVersionCode());
+        } else {
+            next.remove(packageName);
+        }
+        entries = next;
+        return true;
+    }
+
+    // Lets icon memory hits skip their own getPackageInfo
+    private void primeIconVersions(Map<String, AppEntry> apps) {
+        IconCache icons = IconCache.get(appContext);
+        for (AppEntry e : apps.values()) icons.primeVersionCode(e.getPackageName(), e.getVersionCode());
+    }
+
+    private List<AppEntry> sorted() {
+        Map<String, AppEntry> current = entries;
+        if (current == null) return Collections.emptyList();
+        List<AppEntry> list = new ArrayList<>(current.values());
+        Collections.sort(list, AppEntry.BY_LABEL);
+        return list;
+    }
+
+    private Snapshot read() {
+        if (!file.exists()) return null;
+        try (Reader r = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return gson.fromJson(r, Snapshot.class);
+        } catch (Exception e) {
+            Log.w(TAG, "Catalog unreadable, rebuilding", e);
+            return null;
+        }
+    }
+
+    private void save() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.fingerprint = fingerprint();
+        snapshot.bootCount = bootCount();
+        snapshot.sequence = sequence;
+        snapshot.apps = new ArrayList<>(entries.values());
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, w);
+        } catch (IOException e) {
+            Log.w(TAG, "Catalog write failed", e);
+        }
+    }
+
+    private void notifyChanged(String packageName) {
+        mainHandler.post(() -> {
+            for (Listener l : listeners) l.onCatalogChanged(packageName);
+        });
+    }
+
+    private int bootCount() {
+        return Settings.Global.getInt(appContext.getContentResolver(), Settings.Global.BOOT_COUNT, 0);
+    }
+
+    // Labels and collation keys depend on the locale; a system update can change anything
+    private static String fingerprint() {
+        return Build.FINGERPRINT + "|" + Locale.getDefault().toLanguageTag();
+    }
+}
@@ -0,0 +1,94 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+
+import com.shortapps.app.model.AppEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lists launchable apps with a single MAIN/LAUNCHER query and hands them over in
+ * label-sorted batches as the labels are loaded. {@link AppCatalog} runs it on its io thread.
+ */
+public class AppEnumerator {
+    private static final int BATCH_SIZE = 24;
+
+    public interface Sink {
+        /** Called on the main thread; each batch is sorted with {@link AppEntry#BY_LABEL}. */
+        void onBatch(List<AppEntry> batch);
+        /** Called on the main thread after the last batch. */
+        void onComplete();
+    }
+
+    /** Receives sorted batches on the enumerating thread. */
+    interface BatchConsumer {
+        void accept(List<AppEntry> batch);
+    }
+
+    /** Handle returned by {@link AppCatalog#query}; cancel stops further batches from being delivered. */
+    public static class Task {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        public void cancel() { cancelled.set(true); }
+        public boolean isCancelled() { return cancelled.get(); }
+    }
+
+    /** Runs the enumeration on the calling thread. Returns false if it was cancelled. */
+    static boolean enumerateBlocking(Context appContext, Task task, BatchConsumer consumer) {
+        PackageManager pm = appContext.getPackageManager();
+        Intent launcher = new Intent(Intent.ACTION_MAIN).addCategory(Intent.CATEGORY_LAUNCHER);
+        List<ResolveInfo> activities = pm.queryIntentActivities(launcher, 0);
+
+        // One call for every version code instead of a getPackageInfo per app
+        Map<String, Long> versions = new HashMap<>();
+        for (PackageInfo info : pm.getInstalledPackages(0)) {
+            versions.put(info.packageName, info.getLongVersionCode());
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<AppEntry> batch = new ArrayList<>(BATCH_SIZE);
+        for (ResolveInfo ri : activities) {
+            if (task.isCancelled()) return false;
+            String pkg = ri.activityInfo.packageName;
+            if (!seen.add(pkg)) continue;
+            CharSequence label = pm.getApplicationLabel(ri.activityInfo.applicationInfo);
+            Long version = versions.get(pkg);
+            batch.add(new AppEntry(pkg, label != null ? label.toString() : pkg, version != null ? version : 0));
+            if (batch.size() == BATCH_SIZE) {
+                Collections.sort(batch, AppEntry.BY_LABEL);
+                consumer.accept(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            Collections.sort(batch, AppEntry.BY_LABEL);
+            consumer.accept(batch);
+        }
+        return !task.isCancelled();
+    }
+
+    /** Resolves a single package; null if it has no launcher activity (or is gone). */
+    static AppEntry resolve(Context appContext, String packageName) {
+        PackageManager pm = appContext.getPackageManager();
+        Intent launcher = new Intent(Intent.ACTION_MAIN).addCategory(Intent.CATEGORY_LAUNCHER).setPackage(packageName);
+        List<ResolveInfo> activities = pm.queryIntentActivities(launcher, 0);
+        if (activities.isEmpty()) return null;
+        try {
+            PackageInfo info = pm.getPackageInfo(packageName, 0);
+            CharSequence label = pm.getApplicationLabel(activities.get(0).activityInfo.applicationInfo);
+            return new AppEntry(packageName, label != null ? label.toString() : packageName, info.getLongVersionCode());
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.shortapps.app.utils;
+
+import com.shortapps.app.model.AppEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable search index over app labels and package names, built once per app list and
+ * queried off the main thread.
+ *
+ * Candidates come from two structures: a sorted table of word tokens (a flattened prefix
+ * trie) for anything anchored at a word start, and trigram postings for matches inside
+ * words and for typos. Queries shorter than a trigram are matched inside words by a linear
+ * substring scan instead. Candidates are then ranked by how they matched: label prefix,
+ * word prefix, initials ("gm" finds Google Maps), substring, package name, word-anchored
+ * subsequence, trigram overlap. Labels and queries are folded like {@link AppEntry} sort
+ * keys, so accents and case don't affect matching.
+ */
+public class AppSearchIndex {
+    private static final int SCORE_LABEL_PREFIX = 1000;
+    private static final int SCORE_WORD_PREFIX = 800;
+    private static final int SCORE_INITIALS = 700;
+    private static final int SCORE_SUBSTRING = 500;
+    private static final int SCORE_PACKAGE = 300;
+    private static final int SCORE_SUBSEQUENCE = 200;
+    private static final int SCORE_TRIGRAM = 100;
+
+    private final List<AppEntry> apps;  // BY_LABEL order; a doc id is an index into this
+    private final String[] labels;      // folded
+    private final String[] packages;    // lower-cased
+    private final String[] initials;
+    private final String[] tokens;      // sorted; tokenDocs[i] is the doc tokens[i] came from
+    private final int[] tokenDocs;
+    private final Map<String, int[]> trigrams;
+
+    public AppSearchIndex(List<AppEntry> entries) {
+        List<AppEntry> sorted = new ArrayList<>(entries);
+        Collections.sort(sorted, AppEntry.BY_LABEL);
+        apps = Collections.unmodifiableList(sorted);
+        int n = sorted.size();
+        labels = new String[n];
+        packages = new String[n];
+        initials = new String[n];
+
+        List<Token> tokenList = new ArrayList<>();
+        Map<String, List<Integer>> grams = new HashMap<>();
+        StringBuilder sb = new StringBuilder();
+        for (int d = 0; d < n; d++) {
+            AppEntry app = sorted.get(d);
+            labels[d] = app.getSortKey();
+            packages[d] = app.getPackageName().toLowerCase(Locale.ROOT);
+
+            sb.setLength(0);
+            for (int i = 0; i < labels[d].length(); i++) {
+                if (isWordStart(labels[d], i)) {
+                    sb.append(labels[d].charAt(i));
+                    tokenList.add(new Token(wordAt(labels[d], i), d));
+                }
+            }
+            initials[d] = sb.toString();
+            for (String segment : packages[d].split("\\.")) {
+                if (!segment.isEmpty()) tokenList.add(new Token(segment, d));
+            }
+            addTrigrams(grams, labels[d], d);
+            addTrigrams(grams, packages[d], d);
+        }
+
+        Collections.sort(tokenList, (a, b) -> a.text.compareTo(b.text));
+        tokens = new String[tokenList.size()];
+        tokenDocs = new int[tokenList.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenList.get(i).text;
+            tokenDocs[i] = tokenList.get(i).doc;
+        }
+        trigrams = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : grams.entrySet()) {
+            List<Integer> docs = e.getValue();
+            int[] arr = new int[docs.size()];
+            for (int i = 0; i < arr.length; i++) arr[i] = docs.get(i);
+            trigrams.put(e.getKey(), arr);
+        }
+    }
+
+    public int size() {
+        return apps.size();
+    }
+
+    /** All apps in label order when the query is blank, otherwise the matches best first. */
+    public List<AppEntry> search(String query) {
+        String q = fold(query);
+        if (q.isEmpty()) return apps;
+
+        int n = apps.size();
+        boolean[] candidate = new boolean[n];
+        // Anything anchored at a word start shares its first character with some token
+        int from = lowerBound(q.substring(0, 1));
+        for (int i = from; i < tokens.length && tokens[i].charAt(0) == q.charAt(0); i++) {
+            candidate[tokenDocs[i]] = true;
+        }
+        // Matches inside words and near misses share trigrams with the query; a query too
+        // short to have a trigram is checked against every doc instead (a few hundred contains)
+        int[] gramHits = null;
+        int gramCount = 0;
+        if (q.length() < 3) {
+            for (int d = 0; d < n; d++) {
+                if (!candidate[d] && (labels[d].contains(q) || packages[d].contains(q))) candidate[d] = true;
+            }
+        } else {
+            gramHits = new int[n];
+            for (int i = 0; i + 3 <= q.length(); i++) {
+                int[] docs = trigrams.get(q.substring(i, i + 3));
+                gramCount++;
+                if (docs == null) continue;
+                for (int d : docs) {
+                    gramHits[d]++;
+                    candidate[d] = true;
+                }
+            }
+        }
+
+        List<int[]> scored = new ArrayList<>();
+        for (int d = 0; d < n; d++) {
+            if (!candidate[d]) continue;
+            int score = score(d, q);
+            if (score == 0 && gramHits != null && gramHits[d] * 2 >= gramCount) {
+                score = SCORE_TRIGRAM * Math.min(gramHits[d], gramCount) / gramCount;
+            }
+            if (score > 0) scored.add(new int[] {score, d});
+        }
+        // Best score first; label order among equals
+        Collections.sort(scored, (a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0]) : Integer.compare(a[1], b[1]));
+        List<AppEntry> result = new ArrayList<>(scored.size());
+        for (int[] s : scored) result.add(apps.get(s[1]));
+        return result;
+    }
+
+    private int score(int d, String q) {
+        String label = labels[d];
+        if (label.startsWith(q)) return SCORE_LABEL_PREFIX;
+        for (int i = 1; i < label.length(); i++) {
+            if (isWordStart(label, i) && label.startsWith(q, i)) return SCORE_WORD_PREFIX;
+        }
+        if (q.indexOf(' ') < 0 && q.length() > 1 && initials[d].startsWith(q)) return SCORE_INITIALS;
+        if (label.contains(q)) return SCORE_SUBSTRING;
+        if (packages[d].contains(q)) return SCORE_PACKAGE;
+        int span = subsequenceSpan(label, q);
+        if (span > 0) return Math.max(SCORE_SUBSEQUENCE - (span - q.length()), SCORE_TRIGRAM + 1);
+        return 0;
+    }
+
+    /** Length of the shortest word-anchored window of text containing q in order; 0 if none. */
+    private static int subsequenceSpan(String text, String q) {
+        int best = 0;
+        for (int start = 0; start < text.length(); start++) {
+            if (!isWordStart(text, start) || text.charAt(start) != q.charAt(0)) continue;
+            int qi = 1;
+            int i = start + 1;
+            while (qi < q.length() && i < text.length()) {
+                if (text.charAt(i) == q.charAt(qi)) qi++;
+                i++;
+            }
+            if (qi < q.length()) break; // Later starts have even less text left
+            int span = i - start;
+            if (best == 0 || span < best) best = span;
+        }
+        return best;
+    }
+
+    private int lowerBound(String prefix) {
+        int idx = Arrays.binarySearch(tokens, prefix);
+        return idx >= 0 ? idx : -(idx + 1);
+    }
+
+    private static void addTrigrams(Map<String, List<Integer>> grams, String text, int doc) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            List<Integer> docs = grams.get(text.substring(i, i + 3));
+            if (docs == null) {
+                docs = new ArrayList<>();
+                grams.put(text.substring(i, i + 3), docs);
+            }
+            // Docs are added in order, so a repeat can only be the last element
+            if (docs.isEmpty() || docs.get(docs.size() - 1) != doc) docs.add(doc);
+        }
+    }
+
+    private static boolean isWordStart(String text, int i) {
+        return Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+    }
+
+    private static String wordAt(String text, int start) {
+        int end = start;
+        while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) end++;
+        return text.substring(start, end);
+    }
+
+    private static String fold(String query) {
+        return AppEntry.sortKeyFor(query.trim()).replaceAll("\\s+", " ");
+    }
+
+    private static class Token {
+        final String text;
+        final int doc;
+
+        Token(String text, int doc) {
+            this.text = text;
+            this.doc = doc;
+        }
+    }
+}
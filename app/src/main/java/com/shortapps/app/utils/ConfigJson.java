@@ -0,0 +1,107 @@
+package com.shortapps.app.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.shortapps.app.model.ShortcutItem;
+import com.shortapps.app.model.WindowConfig;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON for windows and items through the models' own streaming writeTo/readFrom, with no
+ * reflection or type binding. The output matches what Gson produced for these classes,
+ * so existing files and backups read back unchanged.
+ */
+public class ConfigJson {
+
+    public static String toJson(WindowConfig config, boolean includePosition) {
+        StringWriter sw = new StringWriter();
+        try {
+            config.writeTo(newWriter(sw), includePosition);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter doesn't throw
+        }
+        return sw.toString();
+    }
+
+    public static String toJson(ShortcutItem item) {
+        StringWriter sw = new StringWriter();
+        try {
+            item.writeTo(newWriter(sw));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sw.toString();
+    }
+
+    public static WindowConfig windowFromJson(String json) throws IOException {
+        JsonReader in = newReader(new StringReader(json));
+        if (in.peek() == JsonToken.NULL) return null;
+        return WindowConfig.readFrom(in);
+    }
+
+    public static ShortcutItem itemFromJson(String json) throws IOException {
+        JsonReader in = newReader(new StringReader(json));
+        if (in.peek() == JsonToken.NULL) return null;
+        return ShortcutItem.readFrom(in);
+    }
+
+    /** Writes a window list with positions, as used for backups. */
+    public static void writeWindows(Writer writer, List<WindowConfig> windows) throws IOException {
+        JsonWriter out = newWriter(writer);
+        out.beginArray();
+        for (WindowConfig c : windows) {
+            if (c != null) c.writeTo(out, true);
+            else out.nullValue();
+        }
+        out.endArray();
+        out.flush();
+    }
+
+    /** Reads a window list; null if the document is a JSON null. Null elements are dropped. */
+    public static List<WindowConfig> readWindows(Reader reader) throws IOException {
+        JsonReader in = newReader(reader);
+        if (in.peek() == JsonToken.NULL) return null;
+        List<WindowConfig> result = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) in.nextNull();
+            else result.add(WindowConfig.readFrom(in));
+        }
+        in.endArray();
+        return result;
+    }
+
+    public static List<WindowConfig> readWindows(String json) throws IOException {
+        return readWindows(new StringReader(json));
+    }
+
+    /** Deep copy through the serialized form. */
+    public static WindowConfig copy(WindowConfig config) {
+        try {
+            return windowFromJson(toJson(config, true));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Same settings Gson used: HTML-safe escaping, lenient reads
+    private static JsonWriter newWriter(Writer writer) {
+        JsonWriter out = new JsonWriter(writer);
+        out.setHtmlSafe(true);
+        return out;
+    }
+
+    private static JsonReader newReader(Reader reader) {
+        JsonReader in = new JsonReader(reader);
+        in.setLenient(true);
+        return in;
+    }
+}
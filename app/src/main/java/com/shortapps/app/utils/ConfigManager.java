@@ -2,40 +2,134 @@ package com.shortapps.app.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import android.util.Log;
 import com.shortapps.app.model.WindowConfig;
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class ConfigManager {
+    private static final String TAG = "ConfigManager";
     private static final String PREF_NAME = "ShortappsConfig";
-    private static final String KEY_WINDOWS = "window_configs";
+    private static final String KEY_WINDOWS = "window_configs"; // Legacy single-blob storage, migrated into WindowStore
     private static final String KEY_TRIGGER_SIZE = "trigger_size";
+    private static final String KEY_SNAP_TARGETS = "snap_targets";
+    private static final String KEY_SNAP_GRID = "snap_grid_dp";
+    private static final String KEY_SNAP_MAGNETS = "snap_magnets";
 
     public static void saveWindows(Context context, List<WindowConfig> windows) {
-        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        String json = new Gson().toJson(windows);
-        prefs.edit().putString(KEY_WINDOWS, json).apply();
+        WindowStore.get(context).saveAll(windows);
     }
 
     public static List<WindowConfig> loadWindows(Context context) {
+        migrateIfNeeded(context);
+        return WindowStore.get(context).loadAll();
+    }
+
+    /**
+     * Moves the legacy single-blob config into WindowStore. The blob is removed only once it
+     * has been read and written out; an unreadable one stays, and the store is left alone, so
+     * a later build can retry. Windows created in the meantime are kept.
+     */
+    private static synchronized void migrateIfNeeded(Context context) {
+        WindowStore store = WindowStore.get(context);
         SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         String json = prefs.getString(KEY_WINDOWS, null);
-        if (json == null) return new ArrayList<>();
-        
-        Type type = new TypeToken<List<WindowConfig>>(){}.getType();
-        return new Gson().fromJson(json, type);
+        if (json == null) {
+            if (!store.exists()) store.saveAll(new ArrayList<>());
+            return;
+        }
+
+        List<WindowConfig> legacy;
+        try {
+            legacy = ConfigJson.readWindows(json);
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Unreadable legacy window blob; keeping it for a later retry", e);
+            return;
+        }
+        List<WindowConfig> windows = legacy != null ? new ArrayList<>(legacy) : new ArrayList<>();
+        if (store.exists()) {
+            Set<String> ids = new HashSet<>();
+            for (WindowConfig c : windows) ids.add(c.getId());
+            for (WindowConfig c : store.loadAll()) {
+                if (ids.add(c.getId())) windows.add(c);
+            }
+        }
+        if (legacy != null) {
+            // Records don't carry trigger positions, so hand them to the position store first
+            TriggerPositionStore.get(context).restore(legacy);
+        }
+        store.saveAll(windows);
+        if (store.exists()) {
+            prefs.edit().remove(KEY_WINDOWS).apply();
+        }
     }
-    
+
     public static void saveTriggerSize(Context context, int size) {
         context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
             .edit().putInt(KEY_TRIGGER_SIZE, size).apply();
     }
-    
+
     public static int loadTriggerSize(Context context) {
         return context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
             .getInt(KEY_TRIGGER_SIZE, 60);
     }
-}
\ No newline at end of file
+
+    /** Snap targets offered to every trigger on top of its own edges or corners; SnapResolver.TARGET_* flags. */
+    public static void saveSnapTargets(Context context, int targets, int gridDp, float[] magnets) {
+        context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+            .edit()
+            .putInt(KEY_SNAP_TARGETS, targets)
+            .putInt(KEY_SNAP_GRID, gridDp)
+            .putString(KEY_SNAP_MAGNETS, formatSnapMagnets(magnets))
+            .apply();
+    }
+
+    public static int loadSnapTargets(Context context) {
+        return context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+            .getInt(KEY_SNAP_TARGETS, 0);
+    }
+
+    public static int loadSnapGridDp(Context context) {
+        return context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+            .getInt(KEY_SNAP_GRID, 48);
+    }
+
+    /** Magnet points as x, y pairs, each a fraction (0..1) of the area a trigger can move in. */
+    public static float[] loadSnapMagnets(Context context) {
+        return parseSnapMagnets(context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+            .getString(KEY_SNAP_MAGNETS, ""));
+    }
+
+    /** Magnets as "x,y;x,y", the form they are stored and edited in. */
+    public static String formatSnapMagnets(float[] magnets) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; magnets != null && i + 1 < magnets.length; i += 2) {
+            if (sb.length() > 0) sb.append(';');
+            sb.append(magnets[i]).append(',').append(magnets[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    /** Parses {@link #formatSnapMagnets} output; malformed points are skipped. */
+    public static float[] parseSnapMagnets(String raw) {
+        List<Float> values = new ArrayList<>();
+        for (String point : raw.split(";")) {
+            String[] xy = point.split(",");
+            if (xy.length != 2) continue;
+            try {
+                float x = Float.parseFloat(xy[0].trim());
+                float y = Float.parseFloat(xy[1].trim());
+                values.add(x);
+                values.add(y);
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Ignoring bad magnet " + point);
+            }
+        }
+        float[] magnets = new float[values.size()];
+        for (int i = 0; i < magnets.length; i++) magnets[i] = values.get(i);
+        return magnets;
+    }
+}
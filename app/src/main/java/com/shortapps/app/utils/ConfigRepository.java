@@ -0,0 +1,282 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.shortapps.app.model.WindowConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide, in-memory copy of the window configs shared by the service and the
+ * activities. Structural edits go through {@link #put}, {@link #remove} and
+ * {@link #setAll}; each bumps the affected windows' version, notifies listeners on the
+ * main thread and schedules a write. Writes are coalesced by {@link WriteBehind}, so a
+ * burst of edits or trigger moves costs one write once things settle.
+ *
+ * The list handed out by {@link #getWindows()} is an immutable snapshot. Callers that
+ * want to edit a window should work on {@link #copyOf(String)} and put it back.
+ *
+ * Lookups by window id and window name go through maps rebuilt with each snapshot.
+ *
+ * Trigger positions are owned by {@link TriggerPositionStore}: drags go through
+ * {@link #savePosition} and never dirty the window records. Each screen bucket keeps its
+ * own positions; the configs carry the current bucket's.
+ */
+public class ConfigRepository {
+    private static final long WRITE_QUIET_MS = 500;
+    private static final long WRITE_MAX_DELAY_MS = 3000;
+
+    public interface Listener {
+        /** Called on the main thread with the ids that were added, changed or removed. */
+        void onConfigsChanged(Set<String> changedIds);
+    }
+
+    /** Keyed views of one windows snapshot; never mutated after construction. */
+    private static class Lookup {
+        final Map<String, WindowConfig> byId = new HashMap<>();
+        final Map<String, WindowConfig> byName = new HashMap<>();
+
+        Lookup(List<WindowConfig> windows) {
+            for (WindowConfig c : windows) {
+                byId.put(c.getId(), c);
+                // First match wins, as with the linear name scans this replaces
+                if (c.getName() != null) {
+                    String key = c.getName().toLowerCase(Locale.ROOT);
+                    if (!byName.containsKey(key)) byName.put(key, c);
+                }
+            }
+        }
+    }
+
+    private static ConfigRepository instance;
+
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final WriteBehind writer;
+    private final TriggerPositionStore positions;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> versions = new HashMap<>();
+    private long nextVersion = 1;
+    private volatile List<WindowConfig> windows;
+    private volatile Lookup lookup;
+
+    public static synchronized ConfigRepository get(Context context) {
+        if (instance == null) {
+            instance = new ConfigRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /** The instance if one was already created in this process, without loading anything. */
+    public static synchronized ConfigRepository peek() {
+        return instance;
+    }
+
+    private ConfigRepository(Context appContext) {
+        this.appContext = appContext;
+        this.writer = new WriteBehind("config-writer", WRITE_QUIET_MS, WRITE_MAX_DELAY_MS,
+                () -> ConfigManager.saveWindows(appContext, snapshotForWrite()));
+        this.positions = TriggerPositionStore.get(appContext);
+        List<WindowConfig> loaded = ConfigManager.loadWindows(appContext);
+        positions.restore(loaded);
+        for (WindowConfig c : loaded) versions.put(c.getId(), nextVersion++);
+        windows = Collections.unmodifiableList(loaded);
+        lookup = new Lookup(loaded);
+    }
+
+    public List<WindowConfig> getWindows() {
+        return windows;
+    }
+
+    public WindowConfig find(String id) {
+        return lookup.byId.get(id);
+    }
+
+    /** First window whose name matches ignoring case. */
+    public WindowConfig findByName(String name) {
+        return name == null ? null : lookup.byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /** Deep copy of a window, for editors that may discard their changes. */
+    public WindowConfig copyOf(String id) {
+        WindowConfig c = find(id);
+        return c == null ? null : ConfigJson.copy(c);
+    }
+
+    /** Version stamp of a window's structure; 0 if unknown. Changes on every put. */
+    public synchronized long getVersion(String id) {
+        Long v = versions.get(id);
+        return v != null ? v : 0;
+    }
+
+    /**
+     * Replaces the window with the same id, or appends it if new. The trigger position is
+     * not taken from the config: an editor's copy may predate drags made while it was open.
+     */
+    public void put(WindowConfig config) {
+        Set<String> changed = Collections.singleton(config.getId());
+        synchronized (this) {
+            if (!positions.apply(config)) {
+                WindowConfig live = lookup.byId.get(config.getId());
+                if (live != null) {
+                    config.setTriggerX(live.getTriggerX());
+                    config.setTriggerY(live.getTriggerY());
+                    config.setCornerAnchor(live.getCornerAnchor());
+                }
+                positions.put(config);
+            }
+            List<WindowConfig> next = new ArrayList<>(windows);
+            boolean replaced = false;
+            for (int i = 0; i < next.size(); i++) {
+                if (next.get(i).getId().equals(config.getId())) {
+                    next.set(i, config);
+                    replaced = true;
+                    break;
+                }
+            }
+            if (!replaced) next.add(config);
+            publish(next, changed);
+        }
+        notifyChanged(changed);
+    }
+
+    public void remove(String id) {
+        Set<String> changed = Collections.singleton(id);
+        synchronized (this) {
+            List<WindowConfig> next = new ArrayList<>(windows);
+            boolean removed = false;
+            for (int i = 0; i < next.size() && !removed; i++) {
+                if (next.get(i).getId().equals(id)) {
+                    next.remove(i);
+                    removed = true;
+                }
+            }
+            if (!removed) return;
+            positions.remove(id);
+            publish(next, changed);
+        }
+        notifyChanged(changed);
+    }
+
+    /** Replaces every window, e.g. after an import. */
+    public void setAll(List<WindowConfig> configs) {
+        Set<String> changed = new HashSet<>();
+        synchronized (this) {
+            for (WindowConfig c : windows) changed.add(c.getId());
+            for (WindowConfig c : configs) {
+                changed.add(c.getId());
+                positions.put(c);
+            }
+            publish(new ArrayList<>(configs), changed);
+        }
+        notifyChanged(Collections.unmodifiableSet(changed));
+    }
+
+    /**
+     * Schedules a write of the current state without bumping versions or notifying listeners.
+     * Used for in-place edits that don't change a window's structure.
+     */
+    public void persist() {
+        writer.markDirty();
+    }
+
+    /**
+     * Moves a window's trigger: sets the position on the live config and records it. The
+     * config is changed under the same lock the writer copies it under.
+     */
+    public synchronized void savePosition(WindowConfig config, int x, int y, int anchor) {
+        config.setTriggerX(x);
+        config.setTriggerY(y);
+        config.setCornerAnchor(anchor);
+        positions.put(config);
+        // Without a position store the records carry the position, so write them
+        if (!positions.isAvailable()) writer.markDirty();
+    }
+
+    /** Screen bucket whose trigger positions the configs currently carry. */
+    public String getPositionBucket() {
+        return positions.getBucket();
+    }
+
+    /** Switches trigger positions to the layout of another screen bucket, e.g. on rotation. */
+    public void setPositionBucket(String bucket) {
+        positions.setBucket(bucket);
+    }
+
+    /**
+     * Moves the window's trigger to its saved position in the current bucket, in place and
+     * without persisting anything. False if the window has no position there yet.
+     */
+    public synchronized boolean restorePosition(WindowConfig config) {
+        return positions.apply(config);
+    }
+
+    /** Trigger position {x, y, anchor} saved under another bucket, e.g. a secondary display's; null if none. */
+    public int[] loadPosition(String windowId, String bucket) {
+        return positions.get(windowId, bucket);
+    }
+
+    /** Records a trigger position under another bucket; the config is left alone. */
+    public void savePosition(String windowId, String bucket, int x, int y, int anchor) {
+        positions.put(windowId, bucket, x, y, anchor);
+    }
+
+    /** Starts any pending write now instead of after the quiet period. */
+    public void flush() {
+        writer.flush();
+    }
+
+    /** Writes any pending changes and waits (bounded) for them to reach disk. */
+    public void flushAndWait() {
+        writer.flushAndWait(1000);
+        positions.force();
+    }
+
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    // Callers hold the lock
+    private void publish(List<WindowConfig> next, Set<String> changedIds) {
+        for (String id : changedIds) versions.put(id, nextVersion++);
+        lookup = new Lookup(next);
+        windows = Collections.unmodifiableList(next);
+        persist();
+    }
+
+    private void notifyChanged(Set<String> ids) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            dispatch(ids);
+        } else {
+            mainHandler.post(() -> dispatch(ids));
+        }
+    }
+
+    /**
+     * Copies of the current windows for the writer thread. Live configs are edited in place
+     * (trigger positions) under this lock, so the writer never serializes one mid-change.
+     */
+    private synchronized List<WindowConfig> snapshotForWrite() {
+        List<WindowConfig> copies = new ArrayList<>(windows.size());
+        for (WindowConfig c : windows) copies.add(ConfigJson.copy(c));
+        return copies;
+    }
+
+    private void dispatch(Set<String> ids) {
+        for (Listener l : listeners) l.onConfigsChanged(ids);
+    }
+}
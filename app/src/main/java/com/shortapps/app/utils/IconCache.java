@@ -0,0 +1,197 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.shortapps.app.model.AppEntry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Two-tier cache of app icons rasterized to a fixed pixel size: a size-bounded memory
+ * LRU in front of PNGs in cacheDir/icons. Entries are keyed by package, version code and
+ * size, and dropped when {@link PackageMonitor} reports the package changed.
+ *
+ * Once a package's version code is known, a memory hit needs no PackageManager call.
+ */
+public class IconCache implements PackageMonitor.Listener {
+    private static final String TAG = "IconCache";
+    private static final String DIR_NAME = "icons";
+
+    public interface Callback {
+        /** Called on the main thread; bitmap is null if the package has no icon. */
+        void onIconLoaded(String packageName, Bitmap bitmap);
+    }
+
+    private static IconCache instance;
+
+    private final Context appContext;
+    private final File diskDir;
+    private final LruCache<String, Bitmap> memory;
+    private final Map<String, Long> versionCodes = new ConcurrentHashMap<>();
+    private final ExecutorService loader = Executors.newFixedThreadPool(2);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized IconCache get(Context context) {
+        if (instance == null) {
+            instance = new IconCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private IconCache(Context appContext) {
+        this.appContext = appContext;
+        this.diskDir = new File(appContext.getCacheDir(), DIR_NAME);
+        // 1/16th of the heap, in KB
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 16);
+        this.memory = new LruCache<String, Bitmap>(maxKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount() / 1024;
+            }
+        };
+        PackageMonitor.get(appContext).addListener(this);
+    }
+
+    /** Memory-tier lookup only; null on a miss or while the package version is unknown. */
+    public Bitmap getCached(String packageName, int sizePx) {
+        Long version = versionCodes.get(packageName);
+        if (version == null) return null;
+        return memory.get(key(packageName, version, sizePx));
+    }
+
+    /**
+     * Shows the icon in target. A memory hit is applied synchronously; otherwise the view
+     * is cleared and the icon is loaded from disk or PackageManager in the background.
+     */
+    public void load(String packageName, int sizePx, ImageView target) {
+        Bitmap cached = getCached(packageName, sizePx);
+        final String request = packageName + "@" + sizePx;
+        target.setTag(request);
+        if (cached != null) {
+            target.setImageBitmap(cached);
+            return;
+        }
+        target.setImageDrawable(null);
+        load(packageName, sizePx, (pkg, bmp) -> {
+            if (request.equals(target.getTag())) {
+                if (bmp != null) target.setImageBitmap(bmp);
+                else target.setImageResource(android.R.drawable.sym_def_app_icon);
+            }
+        });
+    }
+
+    /** Records a package's version code learned elsewhere (e.g. the app catalog). */
+    public void primeVersionCode(String packageName, long versionCode) {
+        versionCodes.put(packageName, versionCode);
+    }
+
+    /** Loads through all tiers in the background and reports the result on the main thread. */
+    public void load(String packageName, int sizePx, Callback callback) {
+        loader.execute(() -> {
+            Bitmap bmp = loadBlocking(packageName, sizePx);
+            mainHandler.post(() -> callback.onIconLoaded(packageName, bmp));
+        });
+    }
+
+    /** Resolves through all tiers. Must not be called on the main thread. */
+    public Bitmap loadBlocking(String packageName, int sizePx) {
+        long version = versionCode(packageName);
+        if (version < 0) return null;
+        String key = key(packageName, version, sizePx);
+        Bitmap bmp = memory.get(key);
+        if (bmp != null) return bmp;
+
+        File file = new File(diskDir, key + ".png");
+        if (file.exists()) {
+            bmp = BitmapFactory.decodeFile(file.getAbsolutePath());
+        }
+        if (bmp == null) {
+            bmp = rasterize(packageName, sizePx);
+            if (bmp != null) writeToDisk(file, bmp);
+        }
+        if (bmp != null) memory.put(key, bmp);
+        return bmp;
+    }
+
+    /** Warms both tiers for the given packages in the background. */
+    public void prefetch(Iterable<String> packageNames, int sizePx) {
+        for (String pkg : packageNames) {
+            if (getCached(pkg, sizePx) == null) {
+                loader.execute(() -> loadBlocking(pkg, sizePx));
+            }
+        }
+    }
+
+    @Override
+    public void onPackageChanged(String packageName, boolean removed) {
+        versionCodes.remove(packageName);
+        String prefix = packageName + "_";
+        for (String key : memory.snapshot().keySet()) {
+            if (key.startsWith(prefix)) memory.remove(key);
+        }
+        loader.execute(() -> {
+            File[] files = diskDir.listFiles();
+            if (files == null) return;
+            for (File f : files) {
+                if (f.getName().startsWith(prefix)) f.delete();
+            }
+        });
+    }
+
+    private long versionCode(String packageName) {
+        Long cached = versionCodes.get(packageName);
+        if (cached != null) return cached;
+        try {
+            PackageInfo info = appContext.getPackageManager().getPackageInfo(packageName, 0);
+            long version = info.getLongVersionCode();
+            versionCodes.put(packageName, version);
+            return version;
+        } catch (PackageManager.NameNotFoundException e) {
+            return -1;
+        }
+    }
+
+    private Bitmap rasterize(String packageName, int sizePx) {
+        try {
+            Drawable d = appContext.getPackageManager().getApplicationIcon(packageName);
+            Bitmap bmp = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bmp);
+            d.setBounds(0, 0, sizePx, sizePx);
+            d.draw(canvas);
+            return bmp;
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(File file, Bitmap bmp) {
+        if (!diskDir.exists() && !diskDir.mkdirs()) return;
+        try (OutputStream os = new FileOutputStream(file)) {
+            bmp.compress(Bitmap.CompressFormat.PNG, 100, os);
+        } catch (IOException e) {
+            Log.w(TAG, "Icon write failed: " + file, e);
+        }
+    }
+
+    private static String key(String packageName, long version, int sizePx) {
+        return AppEntry.iconKeyFor(packageName, version) + "_" + sizePx;
+    }
+}
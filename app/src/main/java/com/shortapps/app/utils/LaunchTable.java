@@ -0,0 +1,146 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import com.shortapps.app.model.ShortcutItem;
+import com.shortapps.app.model.WindowConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ready-to-fire launch records for shortcut items, compiled in the background ahead of the
+ * first tap: the resolved launch Intent of an app, the parsed Intent of a system shortcut,
+ * or the Tasker broadcast. Records are keyed by what they launch, not by item id, so an
+ * edited item simply maps to a new record; app records are dropped and recompiled when
+ * {@link PackageMonitor} reports their package changed.
+ */
+public class LaunchTable implements PackageMonitor.Listener {
+    private static final String TAG = "LaunchTable";
+    private static final String TASKER_ACTION = "net.dinglisch.android.tasker.ACTION_TASK";
+
+    /** A compiled launch. The Intent is built once and reused for every tap. */
+    private static class Record {
+        final Intent intent;
+        final boolean broadcast;
+
+        Record(Intent intent, boolean broadcast) {
+            this.intent = intent;
+            this.broadcast = broadcast;
+        }
+    }
+
+    // Cached for items that cannot be launched, so repeated taps don't retry the lookup
+    private static final Record UNLAUNCHABLE = new Record(null, false);
+
+    private static LaunchTable instance;
+
+    private final Context appContext;
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+    private final ExecutorService compiler = Executors.newSingleThreadExecutor();
+
+    public static synchronized LaunchTable get(Context context) {
+        if (instance == null) {
+            instance = new LaunchTable(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LaunchTable(Context appContext) {
+        this.appContext = appContext;
+        PackageMonitor.get(appContext).addListener(this);
+    }
+
+    /** Compiles every item of the window in the background. */
+    public void prepare(WindowConfig config) {
+        for (ShortcutItem item : config.getItems()) {
+            String key = keyOf(item);
+            if (key != null && !records.containsKey(key)) {
+                compiler.execute(() -> recordFor(key, item));
+            }
+        }
+    }
+
+    /**
+     * Launches the item. Costs one map lookup and the start call once compiled; an item
+     * tapped before its record is ready is compiled on the spot. Returns false if it could
+     * not be launched.
+     */
+    public boolean fire(Context context, ShortcutItem item) {
+        String key = keyOf(item);
+        if (key == null) return false;
+        Record record = recordFor(key, item);
+        if (record == UNLAUNCHABLE) return false;
+        try {
+            if (record.broadcast) context.sendBroadcast(record.intent);
+            else context.startActivity(record.intent);
+            return true;
+        } catch (Exception e) {
+            Log.w(TAG, "Launch failed for " + key, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void onPackageChanged(String packageName, boolean removed) {
+        String key = appKey(packageName);
+        if (records.remove(key) != null && !removed) {
+            // Recompile what was in use; the launcher activity may have changed
+            compiler.execute(() -> records.put(key, compile(ShortcutItem.TYPE_APP, packageName, key)));
+        }
+    }
+
+    private Record recordFor(String key, ShortcutItem item) {
+        Record record = records.get(key);
+        if (record == null) {
+            String target = item.getType() == ShortcutItem.TYPE_APP ? item.getPackageName()
+                    : item.getType() == ShortcutItem.TYPE_TASKER ? item.getTaskerTaskName() : item.getIntentUri();
+            record = compile(item.getType(), target, key);
+            records.put(key, record);
+        }
+        return record;
+    }
+
+    private Record compile(int type, String target, String key) {
+        try {
+            if (type == ShortcutItem.TYPE_APP) {
+                Intent launch = appContext.getPackageManager().getLaunchIntentForPackage(target);
+                if (launch == null) return UNLAUNCHABLE;
+                launch.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+                return new Record(launch, false);
+            } else if (type == ShortcutItem.TYPE_TASKER) {
+                Intent b = new Intent(TASKER_ACTION);
+                b.putExtra("task_name", target);
+                return new Record(b, true);
+            } else if (type == ShortcutItem.TYPE_SHORTCUT) {
+                Intent i = Intent.parseUri(target, 0);
+                i.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+                return new Record(i, false);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Cannot compile " + key, e);
+        }
+        return UNLAUNCHABLE;
+    }
+
+    private static String keyOf(ShortcutItem item) {
+        switch (item.getType()) {
+            case ShortcutItem.TYPE_APP:
+                return item.getPackageName() != null ? appKey(item.getPackageName()) : null;
+            case ShortcutItem.TYPE_TASKER:
+                return item.getTaskerTaskName() != null ? "t:" + item.getTaskerTaskName() : null;
+            case ShortcutItem.TYPE_SHORTCUT:
+                return item.getIntentUri() != null ? "s:" + item.getIntentUri() : null;
+            default:
+                return null;
+        }
+    }
+
+    private static String appKey(String packageName) {
+        return "a:" + packageName;
+    }
+}
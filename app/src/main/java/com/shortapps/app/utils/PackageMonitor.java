@@ -0,0 +1,63 @@
+package com.shortapps.app.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.Uri;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single process-wide receiver for package install/update/uninstall broadcasts.
+ * Caches keyed by package register here instead of each registering their own receiver.
+ */
+public class PackageMonitor {
+
+    public interface Listener {
+        /** removed is true only for a real uninstall, not the remove half of an update. */
+        void onPackageChanged(String packageName, boolean removed);
+    }
+
+    private static PackageMonitor instance;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public static synchronized PackageMonitor get(Context context) {
+        if (instance == null) {
+            instance = new PackageMonitor(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private PackageMonitor(Context appContext) {
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addDataScheme("package");
+        appContext.registerReceiver(receiver, filter, Context.RECEIVER_NOT_EXPORTED);
+    }
+
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            Uri data = intent.getData();
+            if (data == null) return;
+            String pkg = data.getSchemeSpecificPart();
+            boolean replacing = intent.getBooleanExtra(Intent.EXTRA_REPLACING, false);
+            boolean removed = Intent.ACTION_PACKAGE_REMOVED.equals(intent.getAction()) && !replacing;
+            for (Listener l : listeners) l.onPackageChanged(pkg, removed);
+        }
+    };
+}
@@ -0,0 +1,205 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Where a released trigger comes to rest. Snap targets (screen edges, corners, an optional
+ * grid and user-placed magnets) are generated once per screen and trigger size and kept in
+ * a uniform grid of cells. A release searches outward from the point the fling is heading
+ * for, ring by ring, and takes the nearest target whose spot isn't covered by another
+ * trigger. Only the cells near that point are visited, so a release stays well under a
+ * millisecond even with many triggers and a fine grid.
+ *
+ * Positions are trigger top-left corners, in the same space as the overlay's LayoutParams.
+ */
+public class SnapResolver {
+    public static final int TARGET_EDGES = 1;
+    public static final int TARGET_CORNERS = 2;
+    public static final int TARGET_GRID = 4;
+    public static final int TARGET_MAGNETS = 8;
+
+    private static final float PROJECTION_SECONDS = 0.12f; // How far a fling carries the aim
+    private static final int EDGE_STEP_DP = 4;
+    private static final int GAP_DP = 4;                    // Kept clear between triggers
+    private static final int CELL_DP = 64;
+
+    /** A resolved position; anchor is the corner index (0:TL, 1:TR, 2:BL, 3:BR) or -1. */
+    public static class Result {
+        public final int x;
+        public final int y;
+        public final int anchor;
+
+        Result(int x, int y, int anchor) {
+            this.x = x;
+            this.y = y;
+            this.anchor = anchor;
+        }
+    }
+
+    /** User snap settings, see {@link ConfigManager#loadSnapTargets}. */
+    public static class Settings {
+        final int extraTargets;
+        final int gridDp;
+        final float[] magnets; // x, y pairs as fractions of the free area
+
+        public Settings(int extraTargets, int gridDp, float[] magnets) {
+            this.extraTargets = extraTargets;
+            this.gridDp = gridDp;
+            this.magnets = magnets;
+        }
+
+        public static Settings load(Context context) {
+            return new Settings(ConfigManager.loadSnapTargets(context),
+                    ConfigManager.loadSnapGridDp(context), ConfigManager.loadSnapMagnets(context));
+        }
+    }
+
+    private final int maxX, maxY;
+    private final int cell, cols, rows;
+    private final int gap;
+    private final int edgeMask;
+    // Targets, bucketed by cell: cellStart[c]..cellStart[c + 1] index into the arrays below
+    private final int[] cellStart;
+    private final int[] targetX, targetY, targetAnchor;
+
+    /**
+     * Targets for a trigger of the given size on the given screen. {@code targets} is the
+     * window's own mode (edges or corners) combined with the user's extra targets.
+     */
+    public SnapResolver(int screenWidth, int screenHeight, int width, int height, float density,
+                        int targets, Settings settings) {
+        maxX = Math.max(0, screenWidth - width);
+        maxY = Math.max(0, screenHeight - height);
+        cell = Math.max(1, (int) (CELL_DP * density));
+        cols = maxX / cell + 1;
+        rows = maxY / cell + 1;
+        gap = (int) (GAP_DP * density);
+        edgeMask = targets & TARGET_EDGES;
+
+        List<int[]> list = new ArrayList<>();
+        if ((targets & TARGET_CORNERS) != 0) {
+            list.add(new int[] {0, 0, 0});
+            list.add(new int[] {maxX, 0, 1});
+            list.add(new int[] {0, maxY, 2});
+            list.add(new int[] {maxX, maxY, 3});
+        }
+        if ((targets & TARGET_EDGES) != 0) {
+            int step = Math.max(1, (int) (EDGE_STEP_DP * density));
+            for (int y = 0; y < maxY + step; y += step) {
+                list.add(new int[] {0, Math.min(y, maxY), -1});
+                list.add(new int[] {maxX, Math.min(y, maxY), -1});
+            }
+        }
+        if ((targets & TARGET_GRID) != 0 && settings.gridDp > 0) {
+            int step = Math.max(1, (int) (settings.gridDp * density));
+            for (int y = 0; y < maxY + step; y += step) {
+                for (int x = 0; x < maxX + step; x += step) {
+                    list.add(new int[] {Math.min(x, maxX), Math.min(y, maxY), -1});
+                }
+            }
+        }
+        if ((targets & TARGET_MAGNETS) != 0 && settings.magnets != null) {
+            for (int i = 0; i + 1 < settings.magnets.length; i += 2) {
+                list.add(new int[] {(int) (clampFraction(settings.magnets[i]) * maxX),
+                        (int) (clampFraction(settings.magnets[i + 1]) * maxY), -1});
+            }
+        }
+
+        // Counting sort into cells
+        cellStart = new int[cols * rows + 1];
+        for (int[] t : list) cellStart[cellOf(t[0], t[1]) + 1]++;
+        for (int c = 0; c < cols * rows; c++) cellStart[c + 1] += cellStart[c];
+        int n = list.size();
+        targetX = new int[n];
+        targetY = new int[n];
+        targetAnchor = new int[n];
+        int[] fill = Arrays.copyOf(cellStart, cols * rows);
+        for (int[] t : list) {
+            int i = fill[cellOf(t[0], t[1])]++;
+            targetX[i] = t[0];
+            targetY[i] = t[1];
+            targetAnchor[i] = t[2];
+        }
+    }
+
+    /**
+     * Resolves a release at (x, y) moving at (velocityX, velocityY) px/s. {@code others} holds
+     * the other triggers as {x, y, width, height} rects; a target that would overlap one is
+     * skipped. If every target is taken, the nearest one is used anyway.
+     */
+    public Result resolve(int x, int y, float velocityX, float velocityY, int width, int height, List<int[]> others) {
+        int aimX = clamp((int) (x + velocityX * PROJECTION_SECONDS), maxX);
+        int aimY = clamp((int) (y + velocityY * PROJECTION_SECONDS), maxY);
+
+        // Edge mode keeps the exact height when that spot is free, as before
+        if (edgeMask != 0) {
+            int edgeX = aimX > maxX / 2 ? maxX : 0;
+            if (isFree(edgeX, aimY, width, height, others)) return new Result(edgeX, aimY, -1);
+        }
+        int best = search(aimX, aimY, width, height, others);
+        if (best < 0) best = search(aimX, aimY, width, height, null);
+        if (best < 0) return new Result(aimX, aimY, -1);
+        return new Result(targetX[best], targetY[best], targetAnchor[best]);
+    }
+
+    private int search(int aimX, int aimY, int width, int height, List<int[]> others) {
+        int cx = aimX / cell;
+        int cy = aimY / cell;
+        int best = -1;
+        long bestDist = Long.MAX_VALUE;
+        int maxRing = Math.max(cols, rows);
+        for (int r = 0; r <= maxRing; r++) {
+            // Nothing in this ring or beyond can be closer than (r - 1) cells
+            if (best >= 0 && r > 0) {
+                long reach = (long) (r - 1) * cell;
+                if (reach * reach > bestDist) break;
+            }
+            for (int gy = cy - r; gy <= cy + r; gy++) {
+                if (gy < 0 || gy >= rows) continue;
+                boolean rowEdge = gy == cy - r || gy == cy + r;
+                for (int gx = cx - r; gx <= cx + r; gx += rowEdge ? 1 : 2 * r) {
+                    if (gx >= 0 && gx < cols) {
+                        int c = gy * cols + gx;
+                        for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                            long dx = targetX[i] - aimX;
+                            long dy = targetY[i] - aimY;
+                            long dist = dx * dx + dy * dy;
+                            if (dist < bestDist && isFree(targetX[i], targetY[i], width, height, others)) {
+                                best = i;
+                                bestDist = dist;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean isFree(int x, int y, int width, int height, List<int[]> others) {
+        if (others == null) return true;
+        for (int[] o : others) {
+            if (x < o[0] + o[2] + gap && o[0] < x + width + gap
+                    && y < o[1] + o[3] + gap && o[1] < y + height + gap) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int cellOf(int x, int y) {
+        return (y / cell) * cols + x / cell;
+    }
+
+    private static int clamp(int v, int max) {
+        return Math.max(0, Math.min(max, v));
+    }
+
+    private static float clampFraction(float f) {
+        return Math.max(0f, Math.min(1f, f));
+    }
+}
@@ -0,0 +1,22 @@
+package com.shortapps.app.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out RecyclerView stable ids for string keys (window, item or package ids). Ids are
+ * assigned on first use and never reused, so unlike a hash they cannot collide.
+ */
+public class StableIds {
+    private final Map<String, Long> ids = new HashMap<>();
+    private long next = 1;
+
+    public long idFor(String key) {
+        Long id = ids.get(key);
+        if (id == null) {
+            id = next++;
+            ids.put(key, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,232 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+import android.util.DisplayMetrics;
+import android.util.Log;
+
+import com.shortapps.app.model.WindowConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigger positions (x, y, corner anchor) kept apart from the window configs, in a
+ * memory-mapped file of fixed 64-byte records keyed by window id. A drag updates its
+ * record in place, which is a few memory stores instead of a config rewrite; the kernel
+ * writes the page back.
+ *
+ * Positions are kept per screen bucket (orientation plus screen size, see
+ * {@link #bucketFor}), so a rotation or a fold switches to that screen's own layout instead
+ * of deriving one from the other. Records are keyed "window id@bucket"; configs carry the
+ * position for the current bucket. Secondary displays use buckets of their own, read and
+ * written by window id without going through a config.
+ *
+ * Record layout: key length (short, 0 for a free slot), key (UTF-8, up to 48 bytes),
+ * x, y, anchor (ints), 2 bytes padding.
+ */
+public class TriggerPositionStore {
+    private static final String TAG = "TriggerPositionStore";
+    private static final String FILE_NAME = "trigger_positions.bin";
+    private static final int RECORD_BYTES = 64;
+    private static final int ID_BYTES = 48;
+    private static final int ID_OFFSET = 2;
+    private static final int X_OFFSET = ID_OFFSET + ID_BYTES;
+    private static final int Y_OFFSET = X_OFFSET + 4;
+    private static final int ANCHOR_OFFSET = Y_OFFSET + 4;
+    private static final int MIN_SLOTS = 16;
+    private static final int MAX_ID_BYTES = 36; // A UUID
+
+    private static TriggerPositionStore instance;
+
+    private final File file;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private String bucket;
+
+    public static synchronized TriggerPositionStore get(Context context) {
+        if (instance == null) {
+            Context app = context.getApplicationContext();
+            DisplayMetrics dm = app.getResources().getDisplayMetrics();
+            instance = new TriggerPositionStore(new File(app.getFilesDir(), FILE_NAME),
+                    bucketFor(dm.widthPixels, dm.heightPixels, dm.density));
+        }
+        return instance;
+    }
+
+    /**
+     * Names the layout a screen of this size uses: orientation plus the usable size in dp.
+     * Any change in usable size (rotation, fold, display size setting) gets its own layout.
+     */
+    public static String bucketFor(int widthPx, int heightPx, float density) {
+        int w = Math.round(widthPx / density);
+        int h = Math.round(heightPx / density);
+        return (widthPx > heightPx ? "l" : "p") + w + "x" + h;
+    }
+
+    private TriggerPositionStore(File file, String bucket) {
+        this.file = file;
+        this.bucket = bucket;
+        try {
+            channel = new RandomAccessFile(file, "rw").getChannel();
+            int records = (int) (channel.size() / RECORD_BYTES);
+            map(Math.max(MIN_SLOTS, records));
+            for (int slot = 0; slot < capacity; slot++) {
+                String key = readKey(slot);
+                if (key == null) freeSlots.add(slot);
+                else slots.put(key, slot);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot open " + file, e);
+            buffer = null;
+        }
+    }
+
+    /** False if the file could not be mapped; window records then keep the positions instead. */
+    public synchronized boolean isAvailable() {
+        return buffer != null;
+    }
+
+    public synchronized String getBucket() {
+        return bucket;
+    }
+
+    /** Switches to another screen's layout; later puts and applies use that bucket. */
+    public synchronized void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    /**
+     * Applies the current bucket's position to each config. Configs without a record yet are
+     * recorded from their own fields, which hold the position they were last saved with.
+     */
+    public synchronized void restore(List<WindowConfig> configs) {
+        if (buffer == null) return;
+        for (WindowConfig c : configs) {
+            if (!apply(c)) put(c);
+        }
+    }
+
+    /**
+     * Sets the config's position from the current bucket's record. False if this window has
+     * never been placed on a screen of this bucket.
+     */
+    public synchronized boolean apply(WindowConfig config) {
+        if (buffer == null) return false;
+        Integer slot = slots.get(keyFor(config.getId(), bucket));
+        if (slot == null) return false;
+        int base = slot * RECORD_BYTES;
+        config.setTriggerX(buffer.getInt(base + X_OFFSET));
+        config.setTriggerY(buffer.getInt(base + Y_OFFSET));
+        config.setCornerAnchor(buffer.getInt(base + ANCHOR_OFFSET));
+        return true;
+    }
+
+    /** Records the config's trigger position for the current bucket, in place if it already has a slot. */
+    public synchronized void put(WindowConfig config) {
+        put(config.getId(), bucket, config.getTriggerX(), config.getTriggerY(), config.getCornerAnchor());
+    }
+
+    /** Position {x, y, anchor} recorded for the window in the given bucket, or null. */
+    public synchronized int[] get(String windowId, String bucket) {
+        if (buffer == null) return null;
+        Integer slot = slots.get(keyFor(windowId, bucket));
+        if (slot == null) return null;
+        int base = slot * RECORD_BYTES;
+        return new int[] {buffer.getInt(base + X_OFFSET), buffer.getInt(base + Y_OFFSET), buffer.getInt(base + ANCHOR_OFFSET)};
+    }
+
+    /** Records a position in the given bucket without touching any config, e.g. for a secondary display. */
+    public synchronized void put(String windowId, String bucket, int x, int y, int anchor) {
+        if (buffer == null) return;
+        String key = keyFor(windowId, bucket);
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            if (freeSlots.isEmpty() && !grow()) return;
+            slot = freeSlots.poll();
+            writeKey(slot, key);
+            slots.put(key, slot);
+        }
+        int base = slot * RECORD_BYTES;
+        buffer.putInt(base + X_OFFSET, x);
+        buffer.putInt(base + Y_OFFSET, y);
+        buffer.putInt(base + ANCHOR_OFFSET, anchor);
+    }
+
+    /** Drops the window's positions in every bucket. */
+    public synchronized void remove(String windowId) {
+        if (buffer == null) return;
+        String prefix = idPart(windowId) + "@";
+        Iterator<Map.Entry<String, Integer>> it = slots.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> e = it.next();
+            if (!e.getKey().startsWith(prefix)) continue;
+            buffer.putShort(e.getValue() * RECORD_BYTES, (short) 0);
+            freeSlots.add(e.getValue());
+            it.remove();
+        }
+    }
+
+    /** Forces dirty pages to storage; normally the kernel does this on its own. */
+    public synchronized void force() {
+        if (buffer != null) buffer.force();
+    }
+
+    private void map(int slotCount) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slotCount * RECORD_BYTES);
+        capacity = slotCount;
+    }
+
+    private boolean grow() {
+        int old = capacity;
+        try {
+            map(old * 2);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot grow " + file, e);
+            return false;
+        }
+        for (int slot = old; slot < capacity; slot++) freeSlots.add(slot);
+        return true;
+    }
+
+    private String readKey(int slot) {
+        int base = slot * RECORD_BYTES;
+        int len = buffer.getShort(base);
+        if (len <= 0 || len > ID_BYTES) return null;
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) bytes[i] = buffer.get(base + ID_OFFSET + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeKey(int slot, String key) {
+        int base = slot * RECORD_BYTES;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) buffer.put(base + ID_OFFSET + i, bytes[i]);
+        // Length last, so a torn write leaves a free slot rather than a wrong key
+        buffer.putShort(base, (short) bytes.length);
+    }
+
+    private static String keyFor(String windowId, String bucket) {
+        String key = idPart(windowId) + "@" + bucket;
+        if (key.getBytes(StandardCharsets.UTF_8).length <= ID_BYTES) return key;
+        return idPart(windowId) + "@h" + Integer.toHexString(bucket.hashCode());
+    }
+
+    // Window ids are UUIDs; anything longer is keyed by its hash
+    private static String idPart(String windowId) {
+        if (windowId.getBytes(StandardCharsets.UTF_8).length <= MAX_ID_BYTES) return windowId;
+        return "h" + Integer.toHexString(windowId.hashCode());
+    }
+}
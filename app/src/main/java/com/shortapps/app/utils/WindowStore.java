@@ -0,0 +1,321 @@
+package com.shortapps.app.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.shortapps.app.model.WindowConfig;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Stores each window as its own record under filesDir/windows, plus a small index
+ * file holding the window ids in display order.
+ *
+ * Saves only rewrite the records whose JSON differs from what was last written,
+ * so moving one trigger no longer rewrites every window's item list.
+ *
+ * A lookup file is written alongside: one line per window (id, lower-cased name). A cold
+ * process can resolve a window name from that one file without parsing any window record.
+ * It is rebuilt only from records that were rewritten, and written only when it changed.
+ *
+ * Every file is written crash-safe: the new content goes to a temp file with a CRC32
+ * header and is fsynced, the current file is kept as its ".prev" generation, and the temp file
+ * is renamed into place. A read that finds the file missing, truncated or failing its
+ * checksum falls back to the .prev generation only, so recovery costs at most one extra
+ * read per file.
+ */
+public class WindowStore {
+    private static final String TAG = "WindowStore";
+    private static final String DIR_NAME = "windows";
+    private static final String INDEX_FILE = "index";
+    private static final String RECORD_SUFFIX = ".json";
+    private static final String LOOKUP_FILE = "lookup";
+    private static final String WINDOW_LINE = "w\t";
+    private static final String HEADER_MAGIC = "SA1 ";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String PREV_SUFFIX = ".prev";
+
+    private static WindowStore instance;
+
+    private final File dir;
+    // Positions normally live in TriggerPositionStore; if it can't be opened, records keep them
+    private final boolean includePositions;
+    // Last JSON written (or read) per window id, used to skip unchanged records
+    private final Map<String, String> written = new HashMap<>();
+    // Lookup lines per window id, and the lookup file content last written
+    private final Map<String, String> lookupBlocks = new HashMap<>();
+    private String writtenLookup;
+    private List<String> index;
+
+    public static synchronized WindowStore get(Context context) {
+        if (instance == null) {
+            instance = new WindowStore(new File(context.getApplicationContext().getFilesDir(), DIR_NAME),
+                    !TriggerPositionStore.get(context).isAvailable());
+        }
+        return instance;
+    }
+
+    private WindowStore(File dir, boolean includePositions) {
+        this.dir = dir;
+        this.includePositions = includePositions;
+    }
+
+    /** True once the store has been written at least once (i.e. migration is done). */
+    public synchronized boolean exists() {
+        File index = new File(dir, INDEX_FILE);
+        return index.exists() || previousOf(index).exists();
+    }
+
+    /** Window ids in display order. */
+    public synchronized List<String> readIndex() {
+        if (index == null) {
+            index = new ArrayList<>();
+            String raw = readFile(new File(dir, INDEX_FILE));
+            if (raw != null) {
+                for (String line : raw.split("\n")) {
+                    if (!line.isEmpty()) index.add(line);
+                }
+            }
+        }
+        return new ArrayList<>(index);
+    }
+
+    private WindowConfig loadWindow(String id) {
+        File f = recordFile(id);
+        WindowConfig config = parseWindow(id, readFile(f));
+        if (config == null && f.exists()) {
+            // Intact but unparseable (e.g. written before checksums); try the older generation
+            config = parseWindow(id, readChecked(previousOf(f)));
+        }
+        return config;
+    }
+
+    private WindowConfig parseWindow(String id, String json) {
+        if (json == null) return null;
+        try {
+            WindowConfig config = ConfigJson.windowFromJson(json);
+            if (config != null) written.put(id, json);
+            return config;
+        } catch (Exception e) {
+            Log.w(TAG, "Unreadable window record " + id, e);
+            return null;
+        }
+    }
+
+    /** Id of the first window whose name matches ignoring case, from the lookup file alone. */
+    public synchronized String findWindowIdByName(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        String raw = readLookup();
+        if (raw == null) return null;
+        for (String line : raw.split("\n")) {
+            if (!line.startsWith(WINDOW_LINE)) continue;
+            String[] parts = line.split("\t", 3);
+            if (parts.length == 3 && parts[2].equals(key)) return parts[1];
+        }
+        return null;
+    }
+
+    public synchronized List<WindowConfig> loadAll() {
+        List<WindowConfig> result = new ArrayList<>();
+        for (String id : readIndex()) {
+            WindowConfig config = loadWindow(id);
+            if (config != null) result.add(config);
+        }
+        return result;
+    }
+
+    /**
+     * Persists the given list. Only records whose contents changed are rewritten; the
+     * index is rewritten only when ids were added, removed or reordered.
+     */
+    public synchronized void saveAll(List<WindowConfig> windows) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "Cannot create " + dir);
+            return;
+        }
+        List<String> ids = new ArrayList<>(windows.size());
+        boolean lookupChanged = false;
+        for (WindowConfig config : windows) {
+            ids.add(config.getId());
+            // An unchanged record has an unchanged name, so its lookup line can stay
+            if (writeRecord(config) || !lookupBlocks.containsKey(config.getId())) {
+                String block = lookupBlock(config);
+                lookupChanged |= !block.equals(lookupBlocks.put(config.getId(), block));
+            }
+        }
+
+        List<String> old = readIndex();
+        if (!old.equals(ids) || !exists()) {
+            StringBuilder sb = new StringBuilder();
+            for (String id : ids) sb.append(id).append('\n');
+            if (writeFile(new File(dir, INDEX_FILE), sb.toString())) {
+                index = ids;
+            }
+            Set<String> keep = new HashSet<>(ids);
+            for (String id : old) {
+                if (!keep.contains(id)) {
+                    deleteFile(recordFile(id));
+                    written.remove(id);
+                    lookupBlocks.remove(id);
+                }
+            }
+            lookupChanged = true;
+        }
+        if (lookupChanged) writeLookup(ids);
+    }
+
+    private static String lookupBlock(WindowConfig config) {
+        String name = config.getName() != null ? config.getName() : "";
+        return WINDOW_LINE + config.getId() + '\t' + name.toLowerCase(Locale.ROOT).replace('\n', ' ') + '\n';
+    }
+
+    private void writeLookup(List<String> ids) {
+        StringBuilder sb = new StringBuilder();
+        for (String id : ids) {
+            String block = lookupBlocks.get(id);
+            if (block != null) sb.append(block);
+        }
+        String content = sb.toString();
+        if (content.equals(readLookup())) return;
+        if (writeFile(new File(dir, LOOKUP_FILE), content)) writtenLookup = content;
+    }
+
+    private String readLookup() {
+        if (writtenLookup == null) writtenLookup = readFile(new File(dir, LOOKUP_FILE));
+        return writtenLookup;
+    }
+
+    /** Writes the record if its JSON changed; true if it was rewritten. */
+    private boolean writeRecord(WindowConfig config) {
+        String id = config.getId();
+        // Trigger positions live in TriggerPositionStore, so drags never change a record
+        String json = ConfigJson.toJson(config, includePositions);
+        if (json.equals(written.get(id)) && recordFile(id).exists()) return false;
+        if (!writeFile(recordFile(id), json)) return false;
+        written.put(id, json);
+        return true;
+    }
+
+    private File recordFile(String id) {
+        return new File(dir, fileNameFor(id) + RECORD_SUFFIX);
+    }
+
+    private static String fileNameFor(String id) {
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+            if (!safe) return "h" + Integer.toHexString(id.hashCode());
+        }
+        return id;
+    }
+
+    /** Newest intact generation of f: f itself, else f.prev; null if neither is readable. */
+    private static String readFile(File f) {
+        String content = readChecked(f);
+        if (content == null) {
+            content = readChecked(previousOf(f));
+            if (content != null) Log.w(TAG, "Recovered previous generation of " + f);
+        }
+        return content;
+    }
+
+    private static String readChecked(File f) {
+        if (!f.exists()) return null;
+        byte[] data = new byte[(int) f.length()];
+        try (FileInputStream in = new FileInputStream(f)) {
+            int off = 0;
+            while (off < data.length) {
+                int n = in.read(data, off, data.length - off);
+                if (n < 0) break;
+                off += n;
+            }
+            if (off < data.length) return null;
+        } catch (IOException e) {
+            Log.w(TAG, "Read failed: " + f, e);
+            return null;
+        }
+
+        int headerEnd = -1;
+        for (int i = 0; i < data.length && i < 64; i++) {
+            if (data[i] == '\n') {
+                headerEnd = i;
+                break;
+            }
+        }
+        String head = headerEnd > 0 ? new String(data, 0, headerEnd, StandardCharsets.UTF_8) : "";
+        if (!head.startsWith(HEADER_MAGIC)) {
+            // Written before checksums were added
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        // "SA1 <crc32 hex> <body length>"
+        String[] parts = head.split(" ");
+        try {
+            long crc = Long.parseLong(parts[1], 16);
+            int length = Integer.parseInt(parts[2]);
+            int bodyStart = headerEnd + 1;
+            if (length != data.length - bodyStart) {
+                Log.w(TAG, "Truncated file: " + f);
+                return null;
+            }
+            CRC32 check = new CRC32();
+            check.update(data, bodyStart, length);
+            if (check.getValue() != crc) {
+                Log.w(TAG, "Checksum mismatch: " + f);
+                return null;
+            }
+            return new String(data, bodyStart, length, StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Bad header: " + f, e);
+            return null;
+        }
+    }
+
+    private static boolean writeFile(File f, String content) {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        byte[] header = (HEADER_MAGIC + Long.toHexString(crc.getValue()) + " " + body.length + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        File tmp = new File(f.getPath() + TMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(header);
+            out.write(body);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "Write failed: " + f, e);
+            tmp.delete();
+            return false;
+        }
+        // A crash between these renames leaves only .prev, which readFile falls back to
+        if (f.exists() && !f.renameTo(previousOf(f))) {
+            Log.w(TAG, "Cannot keep previous generation of " + f);
+        }
+        if (!tmp.renameTo(f)) {
+            Log.e(TAG, "Rename failed: " + tmp);
+            return false;
+        }
+        return true;
+    }
+
+    private static void deleteFile(File f) {
+        f.delete();
+        previousOf(f).delete();
+    }
+
+    private static File previousOf(File f) {
+        return new File(f.getPath() + PREV_SUFFIX);
+    }
+}
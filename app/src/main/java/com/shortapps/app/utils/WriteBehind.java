@@ -0,0 +1,72 @@
+package com.shortapps.app.utils;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces bursts of changes into one background write. Each {@link #markDirty()} restarts
+ * a quiet-period timer on a dedicated thread; the write runs once the changes stop, or after
+ * maxDelayMs from the first unsaved change if they never do. The write callback should
+ * persist whatever state is current when it runs.
+ */
+public class WriteBehind {
+    private final Handler handler;
+    private final long quietMs;
+    private final long maxDelayMs;
+    private final Runnable write;
+    private final Runnable writeIfDirty = this::writeIfDirty;
+    private boolean dirty;
+    private long firstDirtyAt;
+
+    public WriteBehind(String name, long quietMs, long maxDelayMs, Runnable write) {
+        HandlerThread thread = new HandlerThread(name);
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+        this.quietMs = quietMs;
+        this.maxDelayMs = maxDelayMs;
+        this.write = write;
+    }
+
+    /** Schedules a write after the quiet period. Safe to call from any thread. */
+    public synchronized void markDirty() {
+        long now = SystemClock.uptimeMillis();
+        if (!dirty) {
+            dirty = true;
+            firstDirtyAt = now;
+        }
+        handler.removeCallbacks(writeIfDirty);
+        long due = Math.min(now + quietMs, firstDirtyAt + maxDelayMs);
+        handler.postAtTime(writeIfDirty, due);
+    }
+
+    /** Writes pending changes now, on the writer thread, without waiting for it. */
+    public synchronized void flush() {
+        if (!dirty) return;
+        handler.removeCallbacks(writeIfDirty);
+        handler.post(writeIfDirty);
+    }
+
+    /** Writes pending changes and waits up to timeoutMs for the write to finish. */
+    public void flushAndWait(long timeoutMs) {
+        flush();
+        CountDownLatch done = new CountDownLatch(1);
+        handler.post(done::countDown); // Runs after any write already queued
+        try {
+            done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeIfDirty() {
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+        }
+        write.run();
+    }
+}
@@ -0,0 +1,196 @@
+package com.shortapps.app.view;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.shortapps.app.model.ShortcutItem;
+import com.shortapps.app.utils.AppCatalog;
+import com.shortapps.app.utils.IconCache;
+
+import java.util.List;
+
+/**
+ * Grid adapter for one overlay window. Binding a holder allocates nothing once warm: the click
+ * listener is shared and resolves the item by position, each holder owns its color-block
+ * drawable, and icon drawables are created once per position and reused.
+ */
+public class ShortcutAdapter extends RecyclerView.Adapter<ShortcutAdapter.Holder> {
+    private static final int CELL_PADDING_PX = 8;
+
+    private final Context context;
+    private final List<ShortcutItem> items;
+    private final boolean showLabels;
+    private final int iconSizePx;
+    private final IconCache iconCache;
+    private final AppCatalog appCatalog;
+    private final Drawable[] iconDrawables;
+    private final boolean[] iconRequested;
+    private ShortcutGridView.OnItemClickListener listener;
+
+    private final View.OnClickListener itemClickListener = v -> {
+        Holder h = (Holder) v.getTag();
+        int pos = h.getBindingAdapterPosition();
+        if (pos != RecyclerView.NO_POSITION && listener != null) listener.onItemClick(items.get(pos));
+    };
+
+    public ShortcutAdapter(Context context, List<ShortcutItem> items, boolean showLabels, int iconSizePx) {
+        this.context = context;
+        this.items = items;
+        this.showLabels = showLabels;
+        this.iconSizePx = iconSizePx;
+        this.iconCache = IconCache.get(context);
+        this.appCatalog = AppCatalog.get(context);
+        this.iconDrawables = new Drawable[items.size()];
+        this.iconRequested = new boolean[items.size()];
+    }
+
+    public void setOnItemClickListener(ShortcutGridView.OnItemClickListener listener) {
+        this.listener = listener;
+    }
+
+    @NonNull @Override public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        FrameLayout v = new FrameLayout(parent.getContext());
+        v.setLayoutParams(new ViewGroup.MarginLayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        return new Holder(v);
+    }
+
+    @Override public void onBindViewHolder(@NonNull Holder holder, int position) {
+        holder.bind(items.get(position), position);
+    }
+
+    @Override public int getItemCount() { return items.size(); }
+
+    private Drawable iconFor(int position, ShortcutItem item) {
+        Drawable d = iconDrawables[position];
+        if (d != null) return d;
+        Bitmap cached = iconCache.getCached(item.getPackageName(), iconSizePx);
+        if (cached != null) {
+            d = new BitmapDrawable(context.getResources(), cached);
+            iconDrawables[position] = d;
+            return d;
+        }
+        if (!iconRequested[position]) {
+            iconRequested[position] = true;
+            iconCache.load(item.getPackageName(), iconSizePx, (pkg, bmp) -> {
+                iconDrawables[position] = bmp != null
+                    ? new BitmapDrawable(context.getResources(), bmp)
+                    : context.getDrawable(android.R.drawable.sym_def_app_icon);
+                notifyItemChanged(position);
+            });
+        }
+        return null;
+    }
+
+    public class Holder extends RecyclerView.ViewHolder {
+        final FrameLayout root;
+        final FrameLayout contentWrapper; // Fixed itemSizeDp x itemSizeDp box
+        final ImageView icon;
+        final View colorBlock;
+        final GradientDrawable colorBlockBg;
+        final Drawable fallbackIcon;
+        final Drawable missingIcon;
+        final TextView label;
+        int boundColor;
+
+        Holder(View v) {
+            super(v);
+            root = (FrameLayout) v;
+            root.setClickable(true);
+            root.setFocusable(true);
+            root.setTag(this);
+            root.setOnClickListener(itemClickListener);
+            int pad = CELL_PADDING_PX;
+            root.setPadding(pad, pad, pad, pad);
+
+            contentWrapper = new FrameLayout(v.getContext());
+
+            icon = new ImageView(v.getContext());
+            fallbackIcon = v.getContext().getDrawable(android.R.drawable.ic_menu_compass);
+            missingIcon = v.getContext().getDrawable(android.R.drawable.sym_def_app_icon);
+            contentWrapper.addView(icon, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+            colorBlock = new View(v.getContext());
+            colorBlockBg = new GradientDrawable();
+            colorBlockBg.setCornerRadius(30);
+            colorBlockBg.setColor(boundColor);
+            colorBlock.setBackground(colorBlockBg);
+            contentWrapper.addView(colorBlock, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+            label = new TextView(v.getContext());
+            label.setTextSize(12);
+            label.setTextColor(Color.WHITE);
+            label.setGravity(Gravity.CENTER);
+            label.setShadowLayer(2, 1, 1, Color.BLACK);
+            label.setMaxLines(1);
+            label.setEllipsize(android.text.TextUtils.TruncateAt.END);
+
+            LinearLayout linear = new LinearLayout(v.getContext());
+            linear.setOrientation(LinearLayout.VERTICAL);
+            linear.setLayoutParams(new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            root.addView(linear);
+
+            LinearLayout.LayoutParams lpIcon = new LinearLayout.LayoutParams(iconSizePx, iconSizePx);
+            lpIcon.gravity = Gravity.CENTER_HORIZONTAL;
+            linear.addView(contentWrapper, lpIcon);
+
+            LinearLayout.LayoutParams lpLabel = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            lpLabel.topMargin = 4;
+            linear.addView(label, lpLabel);
+        }
+
+        void bind(ShortcutItem item, int position) {
+            // Uninstalled apps stay in place, dimmed, and are never sent to the icon loader
+            boolean missing = item.getType() == ShortcutItem.TYPE_APP && appCatalog.isMissing(item.getPackageName());
+            float alpha = missing ? 0.4f : 1f;
+            if (root.getAlpha() != alpha) root.setAlpha(alpha);
+
+            if (showLabels) {
+                label.setVisibility(View.VISIBLE);
+                // setText rebuilds the text layout, so skip it when the text is unchanged
+                if (!android.text.TextUtils.equals(label.getText(), item.getLabel())) {
+                    label.setText(item.getLabel());
+                }
+            } else {
+                label.setVisibility(View.GONE);
+            }
+
+            if (item.getDisplayMode() == ShortcutItem.MODE_COLOR_BLOCK) {
+                icon.setVisibility(View.GONE);
+                colorBlock.setVisibility(View.VISIBLE);
+                if (boundColor != item.getColorInfo()) {
+                    boundColor = item.getColorInfo();
+                    colorBlockBg.setColor(boundColor);
+                }
+            } else {
+                colorBlock.setVisibility(View.GONE);
+                icon.setVisibility(View.VISIBLE);
+                Drawable d;
+                if (missing) {
+                    d = missingIcon;
+                    if (icon.getColorFilter() != null) icon.clearColorFilter();
+                } else if (item.getType() == ShortcutItem.TYPE_APP && item.getPackageName() != null) {
+                    d = iconFor(position, item);
+                    if (icon.getColorFilter() != null) icon.clearColorFilter();
+                } else {
+                    d = fallbackIcon;
+                    if (icon.getColorFilter() == null) icon.setColorFilter(Color.WHITE);
+                }
+                if (icon.getDrawable() != d) icon.setImageDrawable(d);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.shortapps.app.view;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import com.shortapps.app.model.ShortcutItem;
+import com.shortapps.app.utils.AppCatalog;
+import com.shortapps.app.utils.IconCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws a whole overlay grid (icons, color blocks and labels) in one onDraw instead of a
+ * view tree per cell. Hit-testing, press feedback and click dispatch are done here, and
+ * each cell is exposed to accessibility services as a virtual view.
+ */
+public class ShortcutGridView extends View {
+
+    public interface OnItemClickListener {
+        void onItemClick(ShortcutItem item);
+    }
+
+    private static final int CELL_PADDING_PX = 8;
+    private static final int LABEL_GAP_PX = 4;
+    private static final float BLOCK_RADIUS_PX = 30;
+
+    private final Paint blockPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint pressedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint labelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF iconRect = new RectF();
+    private final Rect cellRect = new Rect();
+    private final Drawable fallbackIcon;
+    private final Drawable missingIcon;
+    private final GridAccessibilityHelper accessibilityHelper;
+
+    private List<ShortcutItem> items = new ArrayList<>();
+    private Bitmap[] icons = new Bitmap[0];
+    private boolean[] missing = new boolean[0];
+    private CharSequence[] labels = new CharSequence[0];
+    private int columns = 4;
+    private int itemSizePx;
+    private boolean showLabels = true;
+    private int cellWidth, cellHeight;
+    private float labelAscent;
+    private int labelsCellWidth = -1;
+    private int pressedIndex = -1;
+    private OnItemClickListener listener;
+
+    public ShortcutGridView(Context context) {
+        super(context);
+        labelPaint.setColor(Color.WHITE);
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        labelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 12, getResources().getDisplayMetrics()));
+        labelPaint.setShadowLayer(2, 1, 1, Color.BLACK);
+        pressedPaint.setColor(0x33FFFFFF);
+
+        fallbackIcon = context.getDrawable(android.R.drawable.ic_menu_compass).mutate();
+        fallbackIcon.setColorFilter(new PorterDuffColorFilter(Color.WHITE, PorterDuff.Mode.SRC_IN));
+        missingIcon = context.getDrawable(android.R.drawable.sym_def_app_icon).mutate();
+        missingIcon.setAlpha(100);
+
+        accessibilityHelper = new GridAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+        setFocusable(true);
+    }
+
+    public void setOnItemClickListener(OnItemClickListener listener) {
+        this.listener = listener;
+    }
+
+    public void setItems(List<ShortcutItem> items, int columns, int itemSizePx, boolean showLabels) {
+        this.items = items;
+        this.columns = Math.max(1, columns);
+        this.itemSizePx = itemSizePx;
+        this.showLabels = showLabels;
+        this.icons = new Bitmap[items.size()];
+        this.labels = new CharSequence[items.size()];
+        this.missing = new boolean[items.size()];
+        this.labelsCellWidth = -1;
+        loadIcons();
+        requestLayout();
+        invalidate();
+        accessibilityHelper.invalidateRoot();
+    }
+
+    private void loadIcons() {
+        IconCache cache = IconCache.get(getContext());
+        AppCatalog catalog = AppCatalog.get(getContext());
+        for (int i = 0; i < items.size(); i++) {
+            ShortcutItem item = items.get(i);
+            if (item.getType() == ShortcutItem.TYPE_APP && catalog.isMissing(item.getPackageName())) {
+                // Uninstalled: drawn as a faded placeholder, never sent to the icon loader
+                missing[i] = true;
+                continue;
+            }
+            if (item.getDisplayMode() != ShortcutItem.MODE_ICON
+                    || item.getType() != ShortcutItem.TYPE_APP || item.getPackageName() == null) continue;
+            Bitmap cached = cache.getCached(item.getPackageName(), itemSizePx);
+            if (cached != null) {
+                icons[i] = cached;
+                continue;
+            }
+            final int index = i;
+            final List<ShortcutItem> requested = items;
+            cache.load(item.getPackageName(), itemSizePx, (pkg, bmp) -> {
+                if (requested != items || bmp == null) return;
+                icons[index] = bmp;
+                invalidate();
+            });
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        cellWidth = width / columns;
+        cellHeight = CELL_PADDING_PX * 2 + itemSizePx;
+        if (showLabels) {
+            Paint.FontMetricsInt fm = labelPaint.getFontMetricsInt();
+            labelAscent = fm.ascent;
+            cellHeight += LABEL_GAP_PX + (fm.descent - fm.ascent);
+        }
+        int rows = (items.size() + columns - 1) / columns;
+        setMeasuredDimension(width, resolveSize(rows * cellHeight, heightMeasureSpec));
+        if (showLabels) ellipsizeLabels();
+    }
+
+    // Ellipsizing allocates, so do it once per items/width change rather than per frame
+    private void ellipsizeLabels() {
+        if (labelsCellWidth == cellWidth) return;
+        labelsCellWidth = cellWidth;
+        float avail = cellWidth - CELL_PADDING_PX * 2;
+        for (int i = 0; i < items.size(); i++) {
+            String label = items.get(i).getLabel();
+            labels[i] = label == null ? "" : TextUtils.ellipsize(label, labelPaint, avail, TextUtils.TruncateAt.END);
+        }
+    }
+
+    private void getCellBounds(int index, Rect out) {
+        int col = index % columns;
+        int row = index / columns;
+        out.set(col * cellWidth, row * cellHeight, (col + 1) * cellWidth, (row + 1) * cellHeight);
+    }
+
+    private int indexAt(float x, float y) {
+        if (cellWidth == 0 || cellHeight == 0 || x < 0 || y < 0) return -1;
+        int col = (int) (x / cellWidth);
+        int row = (int) (y / cellHeight);
+        if (col >= columns) return -1;
+        int index = row * columns + col;
+        return index < items.size() ? index : -1;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        for (int i = 0; i < items.size(); i++) {
+            ShortcutItem item = items.get(i);
+            getCellBounds(i, cellRect);
+            float left = cellRect.centerX() - itemSizePx / 2f;
+            float top = cellRect.top + CELL_PADDING_PX;
+            iconRect.set(left, top, left + itemSizePx, top + itemSizePx);
+
+            if (i == pressedIndex) {
+                canvas.drawRoundRect(cellRect.left, cellRect.top, cellRect.right, cellRect.bottom,
+                        BLOCK_RADIUS_PX, BLOCK_RADIUS_PX, pressedPaint);
+            }
+
+            if (item.getDisplayMode() == ShortcutItem.MODE_COLOR_BLOCK) {
+                blockPaint.setColor(item.getColorInfo());
+                canvas.drawRoundRect(iconRect, BLOCK_RADIUS_PX, BLOCK_RADIUS_PX, blockPaint);
+            } else if (missing[i]) {
+                missingIcon.setBounds((int) iconRect.left, (int) iconRect.top, (int) iconRect.right, (int) iconRect.bottom);
+                missingIcon.draw(canvas);
+            } else if (icons[i] != null) {
+                canvas.drawBitmap(icons[i], null, iconRect, bitmapPaint);
+            } else if (item.getType() != ShortcutItem.TYPE_APP) {
+                fallbackIcon.setBounds((int) iconRect.left, (int) iconRect.top, (int) iconRect.right, (int) iconRect.bottom);
+                fallbackIcon.draw(canvas);
+            }
+
+            if (showLabels && labels[i] != null) {
+                float baseline = iconRect.bottom + LABEL_GAP_PX - labelAscent;
+                canvas.drawText(labels[i], 0, labels[i].length(), cellRect.centerX(), baseline, labelPaint);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedIndex(indexAt(event.getX(), event.getY()));
+                return pressedIndex >= 0;
+            case MotionEvent.ACTION_MOVE:
+                if (pressedIndex >= 0 && indexAt(event.getX(), event.getY()) != pressedIndex) {
+                    setPressedIndex(-1);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                int index = pressedIndex;
+                setPressedIndex(-1);
+                if (index >= 0) {
+                    performClick();
+                    performItemClick(index);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressedIndex(-1);
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private void setPressedIndex(int index) {
+        if (index == pressedIndex) return;
+        pressedIndex = index;
+        invalidate();
+    }
+
+    private boolean performItemClick(int index) {
+        if (index < 0 || index >= items.size()) return false;
+        accessibilityHelper.sendEventForVirtualView(index, android.view.accessibility.AccessibilityEvent.TYPE_VIEW_CLICKED);
+        if (listener != null) listener.onItemClick(items.get(index));
+        return true;
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return accessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        accessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /** Exposes each cell as a clickable virtual view labelled with the item's label. */
+    private class GridAccessibilityHelper extends ExploreByTouchHelper {
+        private final Rect bounds = new Rect();
+
+        GridAccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int index = indexAt(x, y);
+            return index >= 0 ? index : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            for (int i = 0; i < items.size(); i++) virtualViewIds.add(i);
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            if (virtualViewId >= items.size()) {
+                // Stale id after the items changed
+                node.setContentDescription("");
+                bounds.setEmpty();
+                node.setBoundsInParent(bounds);
+                return;
+            }
+            ShortcutItem item = items.get(virtualViewId);
+            String label = item.getLabel();
+            node.setContentDescription(label != null ? label : item.getPackageName());
+            getCellBounds(virtualViewId, bounds);
+            node.setBoundsInParent(bounds);
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                return performItemClick(virtualViewId);
+            }
+            return false;
+        }
+    }
+}
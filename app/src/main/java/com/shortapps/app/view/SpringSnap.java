@@ -0,0 +1,113 @@
+package com.shortapps.app.view;
+
+import android.view.Choreographer;
+
+/**
+ * Moves a point to a target on a damped spring, X and Y together, driven by one
+ * Choreographer callback. Each frame reports a single position, so an overlay window
+ * needs one layout update per frame.
+ *
+ * The spring starts with the drag's release velocity, so a flick carries on in its own
+ * direction before it settles instead of restarting from rest.
+ */
+public class SpringSnap implements Choreographer.FrameCallback {
+    private static final float STIFFNESS = 500f;       // 1/s^2
+    private static final float DAMPING_RATIO = 0.75f;  // Slightly under-damped: a small overshoot
+    private static final float MAX_VELOCITY = 6000f;   // px/s
+    private static final float REST_DISTANCE = 0.5f;   // px
+    private static final float REST_VELOCITY = 20f;    // px/s
+    private static final float STEP = 0.004f;          // s; integration substep
+    private static final float MAX_FRAME = 0.032f;     // s; a stalled frame doesn't launch the spring
+
+    public interface Callback {
+        /** A frame's new position; called at most once per frame. */
+        void onSpringUpdate(int x, int y);
+        /** At rest on the target. Not called after {@link #cancel()}. */
+        void onSpringEnd(int x, int y);
+    }
+
+    private final Callback callback;
+    private final float damping;
+    private float x, y, vx, vy;
+    private float targetX, targetY;
+    private int lastX, lastY;
+    private long lastFrameNanos;
+    private boolean running;
+
+    public SpringSnap(Callback callback) {
+        this.callback = callback;
+        this.damping = 2f * DAMPING_RATIO * (float) Math.sqrt(STIFFNESS);
+    }
+
+    /** Starts (or retargets) a snap from the given position and velocity in px/s. */
+    public void start(int fromX, int fromY, float velocityX, float velocityY, int toX, int toY) {
+        x = fromX;
+        y = fromY;
+        vx = clamp(velocityX);
+        vy = clamp(velocityY);
+        targetX = toX;
+        targetY = toY;
+        lastX = fromX;
+        lastY = fromY;
+        lastFrameNanos = 0;
+        if (!running) {
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /** Stops where it is, e.g. when the trigger is grabbed mid-flight. */
+    public void cancel() {
+        if (!running) return;
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getTargetX() {
+        return Math.round(targetX);
+    }
+
+    public int getTargetY() {
+        return Math.round(targetY);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        float dt = lastFrameNanos == 0 ? 1f / 60 : Math.min((frameTimeNanos - lastFrameNanos) / 1e9f, MAX_FRAME);
+        lastFrameNanos = frameTimeNanos;
+        for (float t = 0; t < dt; t += STEP) {
+            float h = Math.min(STEP, dt - t);
+            vx += (-STIFFNESS * (x - targetX) - damping * vx) * h;
+            vy += (-STIFFNESS * (y - targetY) - damping * vy) * h;
+            x += vx * h;
+            y += vy * h;
+        }
+
+        if (Math.abs(x - targetX) < REST_DISTANCE && Math.abs(y - targetY) < REST_DISTANCE
+                && Math.abs(vx) < REST_VELOCITY && Math.abs(vy) < REST_VELOCITY) {
+            running = false;
+            int endX = Math.round(targetX);
+            int endY = Math.round(targetY);
+            if (endX != lastX || endY != lastY) callback.onSpringUpdate(endX, endY);
+            callback.onSpringEnd(endX, endY);
+            return;
+        }
+        int px = Math.round(x);
+        int py = Math.round(y);
+        if (px != lastX || py != lastY) {
+            lastX = px;
+            lastY = py;
+            callback.onSpringUpdate(px, py);
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private static float clamp(float v) {
+        return Math.max(-MAX_VELOCITY, Math.min(MAX_VELOCITY, v));
+    }
+}
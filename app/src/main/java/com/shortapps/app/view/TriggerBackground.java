@@ -0,0 +1,73 @@
+package com.shortapps.app.view;
+
+import android.graphics.Color;
+import android.graphics.drawable.GradientDrawable;
+
+import com.shortapps.app.model.WindowConfig;
+
+/**
+ * Trigger button background (style, color, per-corner radii) that is re-applied in place,
+ * so restyling a trigger or its editor preview doesn't allocate a new drawable or radii array.
+ */
+public class TriggerBackground {
+    private final GradientDrawable shape = new GradientDrawable();
+    // TL, TR, BR, BL as x/y pairs; GradientDrawable keeps a reference to this array
+    private final float[] radii = new float[8];
+    private final int[] applied = new int[7]; // color, style, TL, TR, BR, BL, density bits
+    private boolean hasApplied;
+
+    public TriggerBackground() {
+        shape.setShape(GradientDrawable.RECTANGLE);
+    }
+
+    public GradientDrawable getDrawable() {
+        return shape;
+    }
+
+    public void apply(WindowConfig config, float density) {
+        int color = config.getTriggerColor();
+        int style = config.getTriggerStyle();
+        if (hasApplied && applied[0] == color && applied[1] == style
+                && applied[2] == config.getRadiusTL() && applied[3] == config.getRadiusTR()
+                && applied[4] == config.getRadiusBR() && applied[5] == config.getRadiusBL()
+                && applied[6] == Float.floatToIntBits(density)) {
+            return;
+        }
+        hasApplied = true;
+        applied[0] = color;
+        applied[1] = style;
+        applied[2] = config.getRadiusTL();
+        applied[3] = config.getRadiusTR();
+        applied[4] = config.getRadiusBR();
+        applied[5] = config.getRadiusBL();
+        applied[6] = Float.floatToIntBits(density);
+
+        radii[0] = radii[1] = config.getRadiusTL() * density;
+        radii[2] = radii[3] = config.getRadiusTR() * density;
+        radii[4] = radii[5] = config.getRadiusBR() * density;
+        radii[6] = radii[7] = config.getRadiusBL() * density;
+        shape.setCornerRadii(radii);
+
+        switch (style) {
+            case 0: // Solid
+                shape.setColor(color);
+                shape.setStroke(0, Color.TRANSPARENT);
+                break;
+            case 1: // Outline
+                shape.setColor(Color.TRANSPARENT);
+                shape.setStroke(4, color);
+                break;
+            case 2: // Glass
+                shape.setColor(Color.argb(80, Color.red(color), Color.green(color), Color.blue(color)));
+                shape.setStroke(2, Color.WHITE);
+                break;
+            case 3: // Inverted
+                shape.setColor(Color.WHITE);
+                shape.setStroke(4, color);
+                break;
+            default:
+                shape.setColor(color);
+                shape.setStroke(0, Color.TRANSPARENT);
+        }
+    }
+}
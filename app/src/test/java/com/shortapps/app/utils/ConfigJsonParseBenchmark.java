@@ -0,0 +1,71 @@
+package com.shortapps.app.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.shortapps.app.model.WindowConfig;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Times a cold parse of a 1,000-item config: Gson with a fresh instance (so it builds its
+ * reflective adapters, as it did on every process start) against ConfigJson. The first round
+ * is the first parse in the JVM for both; later rounds still use a fresh Gson each time.
+ * Results are printed, not asserted, and the benchmark is skipped in normal test runs;
+ * ConfigJsonTest is the parity check. Run it with:
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*ConfigJsonParseBenchmark' -Pbenchmark=true -i
+ */
+public class ConfigJsonParseBenchmark {
+    private static final int ROUNDS = 15;
+    private static final Type WINDOW_LIST = new TypeToken<List<WindowConfig>>() {}.getType();
+
+    @Test
+    public void coldParseGsonVersusConfigJson() throws Exception {
+        assumeTrue("Benchmark; run with -Pbenchmark=true", Boolean.getBoolean("benchmark"));
+        String json = ConfigJsonTest.writeWindows(ConfigJsonTest.sampleWindows(1000));
+        long[] gsonNanos = new long[ROUNDS];
+        long[] oursNanos = new long[ROUNDS];
+        List<WindowConfig> fromGson = null;
+        List<WindowConfig> fromOurs = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            // Alternate which goes first so neither always pays for the other's class loading
+            if (round % 2 == 0) {
+                long t0 = System.nanoTime();
+                fromOurs = ConfigJson.readWindows(json);
+                long t1 = System.nanoTime();
+                fromGson = new Gson().fromJson(json, WINDOW_LIST);
+                long t2 = System.nanoTime();
+                oursNanos[round] = t1 - t0;
+                gsonNanos[round] = t2 - t1;
+            } else {
+                long t0 = System.nanoTime();
+                fromGson = new Gson().fromJson(json, WINDOW_LIST);
+                long t1 = System.nanoTime();
+                fromOurs = ConfigJson.readWindows(json);
+                long t2 = System.nanoTime();
+                gsonNanos[round] = t1 - t0;
+                oursNanos[round] = t2 - t1;
+            }
+        }
+        System.out.printf("1,000-item config, first parse: Gson %.1f ms, ConfigJson %.1f ms%n",
+                gsonNanos[0] / 1e6, oursNanos[0] / 1e6);
+        System.out.printf("1,000-item config, median of %d: Gson %.2f ms, ConfigJson %.2f ms%n",
+                ROUNDS, median(gsonNanos) / 1e6, median(oursNanos) / 1e6);
+
+        Gson gson = new Gson();
+        assertEquals(gson.toJson(fromGson), gson.toJson(fromOurs));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
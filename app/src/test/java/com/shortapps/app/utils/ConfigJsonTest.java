@@ -0,0 +1,87 @@
+package com.shortapps.app.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.gson.Gson;
+import com.shortapps.app.model.ShortcutItem;
+import com.shortapps.app.model.WindowConfig;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** ConfigJson must write exactly what Gson wrote for the models, so old files and backups keep reading. */
+public class ConfigJsonTest {
+
+    /** Windows totalling the given number of items, with every field and awkward characters in use. */
+    static List<WindowConfig> sampleWindows(int itemCount) {
+        List<WindowConfig> windows = new ArrayList<>();
+        WindowConfig window = null;
+        for (int i = 0; i < itemCount; i++) {
+            if (i % 100 == 0) {
+                window = new WindowConfig("Window <" + i + "> & 'quoted' \"name\"\n\t\u00e9");
+                window.setColumns(3 + i % 4);
+                window.setItemSizeDp(48 + i % 16);
+                window.setShowLabels(i % 200 == 0);
+                window.setDrawnGrid(i % 300 == 0);
+                window.setCornerSnap(i % 200 != 0);
+                window.setCornerAnchor(i % 4);
+                window.setTriggerColor(0x99000000 + i);
+                window.setTriggerX(i);
+                window.setTriggerY(2 * i);
+                windows.add(window);
+            }
+            ShortcutItem item = new ShortcutItem("item-" + i, i % 3, "Label " + i + " =<>&'\u2603");
+            if (i % 2 == 0) item.setPackageName("com.example.app" + i);
+            if (i % 3 == 1) item.setTaskerTaskName("Task " + i);
+            if (i % 5 == 0) item.setIntentUri("intent:#Intent;component=com.example/.Main" + i + ";end");
+            if (i % 7 == 0) item.setDisplayMode(ShortcutItem.MODE_COLOR_BLOCK);
+            item.setColorInfo(-i);
+            window.getItems().add(item);
+        }
+        return windows;
+    }
+
+    static String writeWindows(List<WindowConfig> windows) throws Exception {
+        StringWriter sw = new StringWriter();
+        ConfigJson.writeWindows(sw, windows);
+        return sw.toString();
+    }
+
+    @Test
+    public void writesSameBytesAsGson() throws Exception {
+        List<WindowConfig> windows = sampleWindows(1000);
+        byte[] gson = new Gson().toJson(windows).getBytes(StandardCharsets.UTF_8);
+        byte[] ours = writeWindows(windows).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(gson, ours);
+    }
+
+    @Test
+    public void readsGsonOutputBack() throws Exception {
+        Gson gson = new Gson();
+        String json = gson.toJson(sampleWindows(1000));
+        assertEquals(json, gson.toJson(ConfigJson.readWindows(json)));
+    }
+
+    @Test
+    public void missingAndUnknownFieldsReadLikeGson() throws Exception {
+        Gson gson = new Gson();
+        String json = "{\"id\":\"a\",\"name\":null,\"items\":[null,{\"id\":\"b\"}],\"extra\":{\"k\":[1,2]}}";
+        WindowConfig expected = gson.fromJson(json, WindowConfig.class);
+        WindowConfig actual = ConfigJson.windowFromJson(json);
+        assertEquals(gson.toJson(expected), gson.toJson(actual));
+        assertEquals(-1, actual.getCornerAnchor());
+    }
+
+    @Test
+    public void recordsLeavePositionsOut() {
+        WindowConfig config = sampleWindows(1).get(0);
+        String json = ConfigJson.toJson(config, false);
+        assertEquals(-1, json.indexOf("triggerX"));
+        assertEquals(-1, json.indexOf("cornerAnchor"));
+    }
+}